@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.nosemaj.wildcardtrie.benchmarks;
+
+import org.nosemaj.wildcardtrie.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the garbage made by one query of getMatchingWords() with
+ * that of the walk it replaced, which built {@code prefix + character}
+ * at every node it visited and a new set at every level. Run with the
+ * GC profiler, as {@link BenchmarkMain} does, and compare the {@code
+ * gc.alloc.rate.norm} rows: the bytes allocated per query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AllocationBenchmark {
+    private static final char WILDCARD = '*';
+
+    /**
+     * The search term.
+     */
+    @Param({"*****", "******", "s***", "*oor"})
+    public String searchTerm;
+
+    /**
+     * Holds the dictionary in a tree of plain nodes, for the old walk
+     * to search, shared by all benchmark threads.
+     */
+    @State(Scope.Benchmark)
+    public static class NodeState {
+        /**
+         * The root of a tree holding every word of the dictionary.
+         */
+        public Node root;
+
+        /**
+         * Loads the tree.
+         *
+         * @param state the dictionary
+         */
+        @Setup
+        public void setup(final DictionaryState state) {
+            root = new Node();
+
+            for (final String word : state.words) {
+                Node node = root;
+
+                for (int index = 0; index < word.length(); index++) {
+                    final char character = word.charAt(index);
+                    Node child = node.getChild(character);
+
+                    if (null == child) {
+                        child = new Node(character);
+                        node.putChild(character, child);
+                    }
+
+                    node = child;
+                }
+
+                node.setCompleteWord(true);
+            }
+        }
+    }
+
+    /**
+     * Finds the words matching the search term with the trie's own
+     * walk, which fills one char buffer and makes a String only for
+     * each match.
+     *
+     * @param state the dictionary
+     *
+     * @return the matching words
+     */
+    @Benchmark
+    public Set<String> charBuffer(final DictionaryState state) {
+        return state.trie.getMatchingWords(searchTerm);
+    }
+
+    /**
+     * Finds the words matching the search term with the old walk.
+     *
+     * @param state the tree to search
+     *
+     * @return the matching words
+     */
+    @Benchmark
+    public Set<String> prefixConcatenation(final NodeState state) {
+        return getMatchingWords(state.root, searchTerm, "", 0);
+    }
+
+    /**
+     * The old walk, as it was before the char buffer, except that it
+     * looks children up with the indexed accessors of today's nodes
+     * rather than through a map, so that only the strings and sets it
+     * made are counted.
+     *
+     * @param startNode the node at which to start the search
+     * @param searchTerm the term to look up
+     * @param prefix the characters walked so far
+     * @param index the index into {@code searchTerm}
+     *
+     * @return the words below {@code startNode} which match
+     */
+    private static Set<String> getMatchingWords(
+            final Node startNode,
+            final String searchTerm,
+            final String prefix,
+            final int index) {
+
+        final Set<String> matchingWords = new HashSet<>();
+
+        if (searchTerm.length() == index) {
+            if (startNode.isCompleteWord()) {
+                matchingWords.add(prefix);
+            }
+
+            return matchingWords;
+        }
+
+        final char character = searchTerm.charAt(index);
+
+        if (WILDCARD != character) {
+            final Node child = startNode.getChild(character);
+
+            if (null != child) {
+                matchingWords.addAll(getMatchingWords(
+                    child,
+                    searchTerm,
+                    prefix + character,
+                    index + 1
+                ));
+            }
+
+            return matchingWords;
+        }
+
+        for (int child = 0; child < startNode.getChildCount(); child++) {
+            matchingWords.addAll(getMatchingWords(
+                startNode.getChildAt(child),
+                searchTerm,
+                prefix + startNode.getChildKey(child),
+                index + 1
+            ));
+        }
+
+        return matchingWords;
+    }
+}
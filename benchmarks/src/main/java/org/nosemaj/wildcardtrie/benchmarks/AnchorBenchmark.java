@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie.benchmarks;
+
+import org.nosemaj.wildcardtrie.BidirectionalWildcardTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a plain WildcardTrie with a BidirectionalWildcardTrie on
+ * search terms anchored at one end: wildcards at the start leave only
+ * the end of the word as a literal anchor, and vice versa.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AnchorBenchmark {
+    private static final int SAMPLE_SIZE = 256;
+    private static final int MIN_WORD_LENGTH = 8;
+
+    /**
+     * Where the wildcards go in each search term.
+     */
+    @Param({"leading", "trailing"})
+    public String shape;
+
+    /**
+     * How many wildcards go in each search term.
+     */
+    @Param({"2", "4"})
+    public int wildcards;
+
+    private String[] patterns;
+    private int cursor;
+
+    /**
+     * Holds the dictionary in a BidirectionalWildcardTrie, shared by
+     * all benchmark threads.
+     */
+    @State(Scope.Benchmark)
+    public static class BidirectionalState {
+        /**
+         * A bidirectional trie holding every word of the dictionary.
+         */
+        public BidirectionalWildcardTrie trie;
+
+        /**
+         * Loads the trie.
+         *
+         * @param state the dictionary
+         */
+        @Setup
+        public void setup(final DictionaryState state) {
+            trie = new BidirectionalWildcardTrie();
+            state.words.forEach(trie::addWord);
+        }
+    }
+
+    /**
+     * Builds the search terms.
+     *
+     * @param state the dictionary
+     */
+    @Setup
+    public void setup(final DictionaryState state) {
+        patterns = Dictionaries.patterns(
+            Dictionaries.sample(state.words, SAMPLE_SIZE, MIN_WORD_LENGTH),
+            shape,
+            wildcards,
+            '*'
+        );
+    }
+
+    /**
+     * Finds the words matching a search term in the plain trie.
+     *
+     * @param state the dictionary
+     *
+     * @return the matching words
+     */
+    @Benchmark
+    public Set<String> plain(final DictionaryState state) {
+        return state.trie.getMatchingWords(patterns[next()]);
+    }
+
+    /**
+     * Finds the words matching a search term in the bidirectional
+     * trie.
+     *
+     * @param state the bidirectional trie
+     *
+     * @return the matching words
+     */
+    @Benchmark
+    public Set<String> bidirectional(final BidirectionalState state) {
+        return state.trie.getMatchingWords(patterns[next()]);
+    }
+
+    /**
+     * Moves on to the next search term.
+     *
+     * @return the position of the next search term
+     */
+    private int next() {
+        cursor = cursor + 1 == patterns.length ? 0 : cursor + 1;
+        return cursor;
+    }
+}
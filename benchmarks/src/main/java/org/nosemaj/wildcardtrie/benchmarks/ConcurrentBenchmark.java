@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie.benchmarks;
+
+import org.nosemaj.wildcardtrie.ConcurrentWildcardTrie;
+import org.nosemaj.wildcardtrie.WildcardTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures searches which run while another thread adds words: a
+ * ConcurrentWildcardTrie, whose readers never block, is compared with
+ * a WildcardTrie behind one global lock.
+ *
+ * Each group runs three readers and one writer by default. To see how
+ * reads scale with cores, vary the number of readers with, e.g.,
+ * {@code -tg 1,1}, {@code -tg 3,1} and {@code -tg 7,1}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class ConcurrentBenchmark {
+    private static final int SAMPLE_SIZE = 1024;
+    private static final int MIN_WORD_LENGTH = 6;
+    private static final int WILDCARDS = 2;
+
+    private String[] patterns;
+    private String[] additions;
+    private ConcurrentWildcardTrie concurrentTrie;
+    private WildcardTrie lockedTrie;
+
+    /**
+     * Builds the search terms, and the words for the writer to add,
+     * none of which is in the dictionary.
+     *
+     * @param state the dictionary
+     */
+    @Setup(Level.Trial)
+    public void setup(final DictionaryState state) {
+        patterns = Dictionaries.patterns(
+            Dictionaries.sample(state.words, SAMPLE_SIZE, MIN_WORD_LENGTH),
+            "trailing",
+            WILDCARDS,
+            '*'
+        );
+
+        final Set<String> dictionary = new HashSet<>(state.words);
+        final List<String> generated = Dictionaries.generate(state.size * 3);
+
+        generated.removeIf(dictionary::contains);
+        additions = generated.toArray(new String[0]);
+    }
+
+    /**
+     * Loads both tries afresh, so that each iteration's writer adds
+     * words which are new to them.
+     *
+     * @param state the dictionary
+     */
+    @Setup(Level.Iteration)
+    public void load(final DictionaryState state) {
+        concurrentTrie = new ConcurrentWildcardTrie();
+        lockedTrie = new WildcardTrie();
+
+        for (final String word : state.words) {
+            concurrentTrie.addWord(word);
+            lockedTrie.addWord(word);
+        }
+    }
+
+    /**
+     * Counts the words matching a search term, without locking.
+     *
+     * @param cursor this thread's place in the search terms
+     *
+     * @return the number of matching words
+     */
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(3)
+    public int concurrentRead(final Cursor cursor) {
+        return concurrentTrie.countMatchingWords(
+            patterns[cursor.next(patterns.length)]
+        );
+    }
+
+    /**
+     * Adds a word, without locking.
+     *
+     * @param cursor this thread's place in the words to add
+     */
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(1)
+    public void concurrentWrite(final Cursor cursor) {
+        concurrentTrie.addWord(additions[cursor.next(additions.length)]);
+    }
+
+    /**
+     * Counts the words matching a search term, holding the lock.
+     *
+     * @param cursor this thread's place in the search terms
+     *
+     * @return the number of matching words
+     */
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public int lockedRead(final Cursor cursor) {
+        final String pattern = patterns[cursor.next(patterns.length)];
+
+        synchronized (lockedTrie) {
+            return lockedTrie.countMatchingWords(pattern);
+        }
+    }
+
+    /**
+     * Adds a word, holding the lock.
+     *
+     * @param cursor this thread's place in the words to add
+     */
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedWrite(final Cursor cursor) {
+        final String word = additions[cursor.next(additions.length)];
+
+        synchronized (lockedTrie) {
+            lockedTrie.addWord(word);
+        }
+    }
+
+    /**
+     * A thread's place in an array of search terms or words.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        /**
+         * Moves on to the next position.
+         *
+         * @param length the length of the array
+         *
+         * @return the next position in the array
+         */
+        int next(final int length) {
+            position = position + 1 >= length ? 0 : position + 1;
+            return position;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures crossword-style searches: a word of known length with only
+ * its first letter, or only every third letter, filled in. Most of the
+ * subtrees such a search fans out into hold no word of the right
+ * length, so these searches show the effect of length-aware pruning.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CrosswordBenchmark {
+    private static final int SAMPLE_SIZE = 256;
+
+    /**
+     * The length of the words searched for.
+     */
+    @Param({"5", "7", "9"})
+    public int length;
+
+    private String[] firstLetter;
+    private String[] everyThirdLetter;
+    private int cursor;
+
+    /**
+     * Builds the search terms.
+     *
+     * @param state the dictionary
+     */
+    @Setup
+    public void setup(final DictionaryState state) {
+        final List<String> sample = Dictionaries.sample(
+            state.words.stream()
+                .filter(word -> word.length() == length)
+                .collect(Collectors.toList()),
+            SAMPLE_SIZE,
+            length
+        );
+
+        firstLetter = new String[sample.size()];
+        everyThirdLetter = new String[sample.size()];
+
+        for (int word = 0; word < sample.size(); word++) {
+            final char[] first = new char[length];
+            final char[] third = new char[length];
+
+            for (int index = 0; index < length; index++) {
+                final char character = sample.get(word).charAt(index);
+                first[index] = 0 == index ? character : '*';
+                third[index] = 0 == index % 3 ? character : '*';
+            }
+
+            firstLetter[word] = new String(first);
+            everyThirdLetter[word] = new String(third);
+        }
+    }
+
+    /**
+     * Finds the words of a given length with a given first letter.
+     *
+     * @param state the dictionary
+     *
+     * @return the matching words
+     */
+    @Benchmark
+    public Set<String> firstLetter(final DictionaryState state) {
+        return state.trie.getMatchingWords(firstLetter[next()]);
+    }
+
+    /**
+     * Finds the words of a given length with every third letter given.
+     *
+     * @param state the dictionary
+     *
+     * @return the matching words
+     */
+    @Benchmark
+    public Set<String> everyThirdLetter(final DictionaryState state) {
+        return state.trie.getMatchingWords(everyThirdLetter[next()]);
+    }
+
+    /**
+     * Moves on to the next search term.
+     *
+     * @return the position of the next search term
+     */
+    private int next() {
+        cursor = cursor + 1 == firstLetter.length ? 0 : cursor + 1;
+        return cursor;
+    }
+}
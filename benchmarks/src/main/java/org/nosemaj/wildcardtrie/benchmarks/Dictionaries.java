@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Supplies the word lists, and search terms over them, that the
+ * benchmarks run against.
+ */
+final class Dictionaries {
+    /**
+     * The name which selects a generated, rather than a real,
+     * dictionary.
+     */
+    static final String GENERATED = "generated";
+
+    private static final long SEED = 0x5eed;
+
+    private static final String[] ONSETS = {
+        "", "b", "c", "d", "f", "g", "h", "l", "m", "n", "p", "r", "s",
+        "t", "st", "tr", "ch", "sh", "br", "pl"
+    };
+    private static final String[] NUCLEI = {
+        "a", "e", "i", "o", "u", "ea", "ou", "ai"
+    };
+    private static final String[] CODAS = {
+        "", "n", "r", "s", "t", "ng", "ll", "ck", "nd", "rt"
+    };
+    private static final String[] SUFFIXES = {
+        "", "", "", "s", "ing", "ed", "ation", "ness", "er", "ly"
+    };
+
+    private Dictionaries() {
+    }
+
+    /**
+     * Loads a dictionary.
+     *
+     * @param dictionary {@link #GENERATED}, or the path to a file with
+     *                   one word per line
+     * @param size the number of words to generate, if generating
+     *
+     * @return the words of the dictionary, in ascending order
+     *
+     * @throws IOException if the dictionary file cannot be read
+     */
+    static List<String> load(final String dictionary, final int size)
+            throws IOException {
+
+        if (GENERATED.equals(dictionary)) {
+            return generate(size);
+        }
+
+        final TreeSet<String> words = new TreeSet<>();
+
+        for (final String line : Files.readAllLines(
+                Paths.get(dictionary), StandardCharsets.UTF_8)) {
+            if (!line.isEmpty()) {
+                words.add(line);
+            }
+        }
+
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Generates a dictionary of English-like words, the same every
+     * time for a given size.
+     *
+     * @param size the number of distinct words to generate
+     *
+     * @return the generated words, in ascending order
+     */
+    static List<String> generate(final int size) {
+        final Random random = new Random(SEED);
+        final TreeSet<String> words = new TreeSet<>();
+
+        while (words.size() < size) {
+            final StringBuilder word = new StringBuilder();
+            final int syllables = 1 + random.nextInt(4);
+
+            for (int syllable = 0; syllable < syllables; syllable++) {
+                word.append(pick(random, ONSETS));
+                word.append(pick(random, NUCLEI));
+                word.append(pick(random, CODAS));
+            }
+
+            word.append(pick(random, SUFFIXES));
+
+            if (0 == random.nextInt(10)) {
+                word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+            }
+
+            words.add(word.toString());
+        }
+
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Picks a sample of words from a dictionary, spread evenly through
+     * it, each at least a given length.
+     *
+     * @param words the dictionary
+     * @param count the number of words to pick
+     * @param minLength the shortest word to pick
+     *
+     * @return up to {@code count} words of the dictionary
+     */
+    static List<String> sample(
+            final List<String> words,
+            final int count,
+            final int minLength) {
+
+        final List<String> sample = new ArrayList<>();
+        final int stride = Math.max(1, words.size() / (count * 4));
+
+        for (int index = 0; index < words.size() && sample.size() < count;
+                index += stride) {
+            if (words.get(index).length() >= minLength) {
+                sample.add(words.get(index));
+            }
+        }
+
+        return sample;
+    }
+
+    /**
+     * Builds search terms from words by replacing some of their
+     * characters with a wildcard.
+     *
+     * @param words the words to build search terms from
+     * @param shape where to put the wildcards: "leading" replaces the
+     *              first characters of each word, "trailing" the last,
+     *              and "interleaved" every other character from the
+     *              second, and "middle" the characters at the
+     *              center of the word
+     * @param wildcards how many characters of each word to replace
+     * @param wildcard the wildcard character
+     *
+     * @return one search term per word, each matching at least the
+     *         word it was built from
+     */
+    static String[] patterns(
+            final List<String> words,
+            final String shape,
+            final int wildcards,
+            final char wildcard) {
+
+        final String[] patterns = new String[words.size()];
+
+        for (int index = 0; index < words.size(); index++) {
+            final char[] pattern = words.get(index).toCharArray();
+
+            for (int count = 0; count < wildcards; count++) {
+                switch (shape) {
+                    case "leading":
+                        pattern[count] = wildcard;
+                        break;
+                    case "trailing":
+                        pattern[pattern.length - 1 - count] = wildcard;
+                        break;
+                    case "interleaved":
+                        pattern[1 + 2 * count] = wildcard;
+                        break;
+                    case "middle":
+                        pattern[(pattern.length - wildcards) / 2 + count] =
+                            wildcard;
+                        break;
+                    default:
+                        throw new IllegalArgumentException(
+                            "Unknown pattern shape (" + shape + ")."
+                        );
+                }
+            }
+
+            patterns[index] = new String(pattern);
+        }
+
+        return patterns;
+    }
+
+    /**
+     * Picks one of a set of strings at random.
+     *
+     * @param random the source of randomness
+     * @param choices the strings to choose from
+     *
+     * @return one of {@code choices}
+     */
+    private static String pick(final Random random, final String[] choices) {
+        return choices[random.nextInt(choices.length)];
+    }
+}
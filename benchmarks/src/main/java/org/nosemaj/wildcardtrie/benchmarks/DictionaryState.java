@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie.benchmarks;
+
+import org.nosemaj.wildcardtrie.WildcardTrie;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A dictionary, loaded into a WildcardTrie once per trial and shared
+ * by all benchmark threads.
+ *
+ * Run against a real dictionary with, e.g., {@code -p
+ * dictionary=/usr/share/dict/words}.
+ */
+@State(Scope.Benchmark)
+public class DictionaryState {
+    /**
+     * {@code generated}, or the path to a file with one word per line.
+     */
+    @Param({Dictionaries.GENERATED})
+    public String dictionary;
+
+    /**
+     * The number of words to generate, for a generated dictionary.
+     */
+    @Param({"100000"})
+    public int size;
+
+    /**
+     * The words of the dictionary, in ascending order.
+     */
+    public List<String> words;
+
+    /**
+     * A trie holding every word of the dictionary.
+     */
+    public WildcardTrie trie;
+
+    /**
+     * Loads the dictionary and the trie.
+     *
+     * @throws IOException if the dictionary file cannot be read
+     */
+    @Setup
+    public void setup() throws IOException {
+        words = Dictionaries.load(dictionary, size);
+        trie = new WildcardTrie();
+        words.forEach(trie::addWord);
+    }
+}
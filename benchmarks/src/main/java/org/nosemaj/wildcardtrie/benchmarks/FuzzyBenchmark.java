@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.nosemaj.wildcardtrie.WildcardTrie;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures spelling suggestions: finding the words within one or two
+ * edits of a misspelt word. A single walk of the trie, carrying a row
+ * of the edit-distance table, is compared with spelling out every
+ * variant of the word and looking each one up.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FuzzyBenchmark {
+    private static final int SAMPLE_SIZE = 256;
+    private static final int MIN_LENGTH = 5;
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+    /**
+     * The greatest number of edits allowed.
+     */
+    @Param({"1", "2"})
+    public int maxEdits;
+
+    private String[] misspellings;
+    private int cursor;
+
+    /**
+     * Misspells a sample of the dictionary, by one substitution each.
+     *
+     * @param state the dictionary
+     */
+    @Setup
+    public void setup(final DictionaryState state) {
+        final List<String> sample =
+            Dictionaries.sample(state.words, SAMPLE_SIZE, MIN_LENGTH);
+
+        misspellings = new String[sample.size()];
+
+        for (int word = 0; word < sample.size(); word++) {
+            final char[] characters = sample.get(word).toCharArray();
+            final int index = word % characters.length;
+
+            characters[index] = 'z' == characters[index] ? 'a' : 'z';
+            misspellings[word] = new String(characters);
+        }
+    }
+
+    /**
+     * Finds the words within range with one walk of the trie.
+     *
+     * @param state the dictionary
+     *
+     * @return the words within range
+     */
+    @Benchmark
+    public Set<String> trieWalk(final DictionaryState state) {
+        return state.trie.getWordsWithinDistance(
+            misspellings[next()], maxEdits
+        );
+    }
+
+    /**
+     * Finds the words within range by looking up every variant.
+     *
+     * @param state the dictionary
+     *
+     * @return the words within range
+     */
+    @Benchmark
+    public Set<String> bruteForce(final DictionaryState state) {
+        Set<String> variants = new HashSet<>();
+        variants.add(misspellings[next()]);
+
+        for (int edit = 0; edit < maxEdits; edit++) {
+            final Set<String> edited = new HashSet<>(variants);
+
+            for (final String variant : variants) {
+                addEdits(variant, edited);
+            }
+
+            variants = edited;
+        }
+
+        return lookup(state.trie, variants);
+    }
+
+    /**
+     * Spells out every string one edit away from a word.
+     *
+     * @param word the word to edit
+     * @param edits the set to add the edited strings to
+     */
+    private static void addEdits(final String word, final Set<String> edits) {
+        for (int index = 0; index <= word.length(); index++) {
+            final String head = word.substring(0, index);
+
+            if (index < word.length()) {
+                edits.add(head + word.substring(index + 1));
+            }
+
+            for (final char character : ALPHABET.toCharArray()) {
+                edits.add(head + character + word.substring(index));
+
+                if (index < word.length()) {
+                    edits.add(head + character + word.substring(index + 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps the strings which are words of the dictionary.
+     *
+     * @param trie the dictionary
+     * @param candidates the strings to look up
+     *
+     * @return the candidates which are words
+     */
+    private static Set<String> lookup(
+            final WildcardTrie trie,
+            final Set<String> candidates) {
+
+        final Set<String> words = new HashSet<>();
+
+        for (final String candidate : candidates) {
+            if (!candidate.isEmpty() && trie.isWord(candidate)) {
+                words.add(candidate);
+            }
+        }
+
+        return words;
+    }
+
+    /**
+     * Moves on to the next misspelling.
+     *
+     * @return the position of the next misspelling
+     */
+    private int next() {
+        cursor = cursor + 1 == misspellings.length ? 0 : cursor + 1;
+        return cursor;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie.benchmarks;
+
+import org.nosemaj.wildcardtrie.App;
+import org.nosemaj.wildcardtrie.WildcardTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a trie from a whole dictionary: one word at a
+ * time, sharded across threads by first character, and in one pass
+ * over the sorted words; and loading one from a file, both serially
+ * and as the command line does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+    private Path dictionaryFile;
+
+    /**
+     * Writes the dictionary out to a file, for App.loadTrie() to read.
+     *
+     * @param state the dictionary
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Setup
+    public void setup(final DictionaryState state) throws IOException {
+        dictionaryFile = Files.createTempFile("wildcardtrie", ".words");
+        Files.write(dictionaryFile, state.words, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Removes the dictionary file.
+     *
+     * @throws IOException if the file cannot be removed
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dictionaryFile);
+    }
+
+    /**
+     * Adds every word of an in-memory dictionary to a new trie.
+     *
+     * @param state the dictionary
+     *
+     * @return the loaded trie
+     */
+    @Benchmark
+    public WildcardTrie addWords(final DictionaryState state) {
+        final WildcardTrie trie = new WildcardTrie();
+        state.words.forEach(trie::addWord);
+        return trie;
+    }
+
+    /**
+     * Builds a new trie from an in-memory dictionary in one pass, since
+     * its words are in ascending order.
+     *
+     * @param state the dictionary
+     *
+     * @return the loaded trie
+     */
+    @Benchmark
+    public WildcardTrie fromSorted(final DictionaryState state) {
+        return WildcardTrie.fromSorted(state.words.iterator());
+    }
+
+    /**
+     * Adds every word of an in-memory dictionary to a new trie, with
+     * the subtree for each leading character built by the common
+     * fork/join pool.
+     *
+     * @param state the dictionary
+     *
+     * @return the loaded trie
+     */
+    @Benchmark
+    public WildcardTrie addWordsParallel(final DictionaryState state) {
+        final WildcardTrie trie = new WildcardTrie();
+        trie.addWords(state.words, ForkJoinPool.commonPool());
+        return trie;
+    }
+
+    /**
+     * Loads a new trie from a dictionary file, adding each line as it
+     * is read, on one thread.
+     *
+     * @return the loaded trie
+     *
+     * @throws IOException if the file cannot be read
+     */
+    @Benchmark
+    public WildcardTrie loadTrie() throws IOException {
+        final WildcardTrie trie = new WildcardTrie();
+
+        try (BufferedReader br = Files.newBufferedReader(
+                dictionaryFile, StandardCharsets.UTF_8)) {
+            String line;
+
+            while ((line = br.readLine()) != null) {
+                trie.addWord(line);
+            }
+        }
+
+        return trie;
+    }
+
+    /**
+     * Loads a new trie from a dictionary file, as the command line
+     * does: the file is read in full, and its words are then added in
+     * parallel by the common fork/join pool.
+     *
+     * @return the loaded trie
+     */
+    @Benchmark
+    public WildcardTrie loadTrieParallel() {
+        final WildcardTrie trie = new WildcardTrie();
+        App.loadTrie(trie, dictionaryFile.toString());
+        return trie;
+    }
+}
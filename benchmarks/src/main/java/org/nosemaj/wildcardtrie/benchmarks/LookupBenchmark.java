@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures exact lookups: isWord() and isPrefix() on literal search
+ * terms, both present and absent.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LookupBenchmark {
+    private static final int SAMPLE_SIZE = 1024;
+
+    private String[] hits;
+    private String[] misses;
+    private String[] prefixes;
+    private int cursor;
+
+    /**
+     * Picks the search terms.
+     *
+     * @param state the dictionary
+     */
+    @Setup
+    public void setup(final DictionaryState state) {
+        final List<String> sample =
+            Dictionaries.sample(state.words, SAMPLE_SIZE, 2);
+
+        hits = new String[sample.size()];
+        misses = new String[sample.size()];
+        prefixes = new String[sample.size()];
+
+        for (int index = 0; index < sample.size(); index++) {
+            final String word = sample.get(index);
+            hits[index] = word;
+            misses[index] = word.substring(0, word.length() - 1) + '#';
+            prefixes[index] = word.substring(0, (word.length() + 1) / 2);
+        }
+    }
+
+    /**
+     * Looks up a word which is in the dictionary.
+     *
+     * @param state the dictionary
+     *
+     * @return whether the word was found
+     */
+    @Benchmark
+    public boolean isWordHit(final DictionaryState state) {
+        return state.trie.isWord(hits[next()]);
+    }
+
+    /**
+     * Looks up a word which is not in the dictionary, but which shares
+     * all but its last character with one that is.
+     *
+     * @param state the dictionary
+     *
+     * @return whether the word was found
+     */
+    @Benchmark
+    public boolean isWordMiss(final DictionaryState state) {
+        return state.trie.isWord(misses[next()]);
+    }
+
+    /**
+     * Looks up the first half of a word in the dictionary as a prefix.
+     *
+     * @param state the dictionary
+     *
+     * @return whether the prefix was found
+     */
+    @Benchmark
+    public boolean isPrefix(final DictionaryState state) {
+        return state.trie.isPrefix(prefixes[next()]);
+    }
+
+    /**
+     * Moves on to the next search term.
+     *
+     * @return the position of the next search term
+     */
+    private int next() {
+        cursor = cursor + 1 == hits.length ? 0 : cursor + 1;
+        return cursor;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures getMatchingWords() on search terms with a varying number of
+ * wildcards, at the start, at the end, or interleaved with literals.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchBenchmark {
+    private static final int SAMPLE_SIZE = 256;
+    private static final int MIN_WORD_LENGTH = 8;
+
+    /**
+     * Where the wildcards go in each search term.
+     */
+    @Param({"leading", "trailing", "interleaved"})
+    public String shape;
+
+    /**
+     * How many wildcards go in each search term.
+     */
+    @Param({"0", "1", "2", "4"})
+    public int wildcards;
+
+    private String[] patterns;
+    private int cursor;
+
+    /**
+     * Builds the search terms.
+     *
+     * @param state the dictionary
+     */
+    @Setup
+    public void setup(final DictionaryState state) {
+        patterns = Dictionaries.patterns(
+            Dictionaries.sample(state.words, SAMPLE_SIZE, MIN_WORD_LENGTH),
+            shape,
+            wildcards,
+            '*'
+        );
+    }
+
+    /**
+     * Finds the words matching a search term.
+     *
+     * @param state the dictionary
+     *
+     * @return the matching words
+     */
+    @Benchmark
+    public Set<String> getMatchingWords(final DictionaryState state) {
+        cursor = cursor + 1 == patterns.length ? 0 : cursor + 1;
+        return state.trie.getMatchingWords(patterns[cursor]);
+    }
+}
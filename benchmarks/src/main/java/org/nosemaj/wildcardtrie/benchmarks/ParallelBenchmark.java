@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures getMatchingWords() on search terms with leading wildcards,
+ * which fan out from the root, walked by one thread and split across
+ * the common fork/join pool. The speedup depends on the number of
+ * cores; the size of the pool may be set with, e.g., {@code
+ * -jvmArgs -Djava.util.concurrent.ForkJoinPool.common.parallelism=8}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParallelBenchmark {
+    private static final int SAMPLE_SIZE = 256;
+    private static final int MIN_WORD_LENGTH = 6;
+
+    /**
+     * Where the wildcards go in each search term.
+     */
+    @Param({"leading", "interleaved"})
+    public String shape;
+
+    /**
+     * How many wildcards go in each search term.
+     */
+    @Param({"2", "3"})
+    public int wildcards;
+
+    private String[] patterns;
+    private int cursor;
+
+    /**
+     * Builds the search terms.
+     *
+     * @param state the dictionary
+     */
+    @Setup
+    public void setup(final DictionaryState state) {
+        patterns = Dictionaries.patterns(
+            Dictionaries.sample(state.words, SAMPLE_SIZE, MIN_WORD_LENGTH),
+            shape,
+            wildcards,
+            '*'
+        );
+    }
+
+    /**
+     * Finds the words matching a search term on this thread.
+     *
+     * @param state the dictionary
+     *
+     * @return the matching words
+     */
+    @Benchmark
+    public Set<String> sequential(final DictionaryState state) {
+        return state.trie.getMatchingWords(patterns[next()]);
+    }
+
+    /**
+     * Finds the words matching a search term in the common pool.
+     *
+     * @param state the dictionary
+     *
+     * @return the matching words
+     */
+    @Benchmark
+    public Set<String> parallel(final DictionaryState state) {
+        return state.trie.getMatchingWords(
+            patterns[next()], ForkJoinPool.commonPool()
+        );
+    }
+
+    /**
+     * Moves on to the next search term.
+     *
+     * @return the position of the next search term
+     */
+    private int next() {
+        cursor = cursor + 1 == patterns.length ? 0 : cursor + 1;
+        return cursor;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The common part of the iterators which lazily walk a Trie for the
+ * complete words that match a search term.
+ *
+ * Each match is found one step ahead of the caller, so that {@link
+ * #hasNext()} can answer without walking. Besides the word itself, the
+ * iterator keeps the node at which the word ends, so that callers
+ * within the package can read what is stored there without looking the
+ * word up again.
+ */
+abstract class AbstractMatchIterator implements Iterator<String> {
+    private String nextWord;
+    private Node nextNode;
+    private Node node;
+
+    @Override
+    public boolean hasNext() {
+        return null != nextNode;
+    }
+
+    @Override
+    public String next() {
+        if (null == nextNode) {
+            throw new NoSuchElementException();
+        }
+
+        final String word = nextWord;
+        node = nextNode;
+        findNext();
+
+        return word;
+    }
+
+    /**
+     * Gets the node at which the word last returned by {@link #next()}
+     * ends.
+     *
+     * @return the node of the last word, or null before the first
+     */
+    Node getNode() {
+        return node;
+    }
+
+    /**
+     * Finds the next match, ready for {@link #next()}. Subclasses call
+     * this once, at the end of construction, to find the first.
+     */
+    final void findNext() {
+        nextNode = advance();
+        nextWord = null == nextNode ? null : currentWord();
+    }
+
+    /**
+     * Resumes the walk until the next matching word is found.
+     *
+     * @return the node at which the next match ends, or null if the
+     *         walk is over
+     */
+    abstract Node advance();
+
+    /**
+     * Spells out the word found by the last call to {@link #advance()}.
+     *
+     * @return the word which ends at the node last found
+     */
+    abstract String currentWord();
+}
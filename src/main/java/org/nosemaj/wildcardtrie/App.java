@@ -19,7 +19,10 @@ package org.nosemaj.wildcardtrie;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Run the WildcardTrie from the command line.
@@ -50,7 +53,10 @@ public class App {
     }
 
     /**
-     * Loads the words in the dictionary file into the trie.
+     * Loads the words in the dictionary file into the trie. The file is
+     * read in full, and the words are then added in parallel, sharded
+     * by their first character. A line which is not a valid word is
+     * reported, and skipped.
      *
      * @param trie the trie to load up
      * @param dictionaryPath path to UNIX standard dictionary file
@@ -62,11 +68,18 @@ public class App {
         final File file = new File(dictionaryPath);
 
         try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            final List<String> words = new ArrayList<>();
             String line;
 
             while ((line = br.readLine()) != null) {
-                trie.addWord(line);
+                if (trie.isValidWord(line)) {
+                    words.add(line);
+                } else {
+                    System.err.println("Skipped invalid word (" + line + ").");
+                }
             }
+
+            trie.addWords(words, ForkJoinPool.commonPool());
         } catch (Exception anyException) {
             System.err.println(anyException.getMessage());
         }
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * BidirectionalWildcardTrie pairs a {@link WildcardTrie} of words with
+ * a second trie of the same words spelled backwards, so that searches
+ * anchored at the end of a word are as cheap as those anchored at the
+ * start.
+ *
+ * A search term like {@code ***ing} gives a forward trie nothing to
+ * narrow the search by until its fourth level, by which point it has
+ * fanned out across most of the trie. Spelled backwards, as {@code
+ * gni***}, the literals come first. Each search is planned by comparing
+ * the run of literals before the first wildcard or glob with the run
+ * after the last, and walking whichever trie sees the longer run first.
+ * The cost is a second copy of the trie.
+ */
+public class BidirectionalWildcardTrie {
+    private final Character wildcard;
+    private final Character glob;
+    private final WildcardTrie forward;
+    private final WildcardTrie reverse;
+
+    /**
+     * Constructs a new BidirectionalWildcardTrie.
+     *
+     * @param wildcard the character to use as a single-character glob;
+     *                 may be null
+     * @param glob the character to use as a zero-or-more character
+     *             glob; may be null
+     */
+    public BidirectionalWildcardTrie(
+            final Character wildcard,
+            final Character glob) {
+
+        this.wildcard = wildcard;
+        this.glob = glob;
+        this.forward = new WildcardTrie(wildcard, glob);
+        this.reverse = new WildcardTrie(wildcard, glob);
+    }
+
+    /**
+     * Constructs a new BidirectionalWildcardTrie, without a glob.
+     *
+     * @param wildcard the character to use as a single-character glob
+     */
+    public BidirectionalWildcardTrie(final Character wildcard) {
+        this(wildcard, null);
+    }
+
+    /**
+     * Constructs a new BidirectionalWildcardTrie, using the default
+     * wildcard character, without a glob.
+     */
+    public BidirectionalWildcardTrie() {
+        this(Words.DEFAULT_WILDCARD);
+    }
+
+    /**
+     * Adds a set of words to the trie.
+     *
+     * @param words the words to add to the trie. Each word must be
+     *              non-empty and may not contain a wildcard or glob
+     *              character.
+     *
+     * @throws RuntimeException
+     *         if any of the provided words cannot be added
+     */
+    public void addWords(final Set<String> words) {
+        if (null != words) {
+            words.forEach(word -> addWord(word));
+        }
+    }
+
+    /**
+     * Adds a word to the trie.
+     *
+     * @param word the word to add to the trie. Must be non-empty and
+     *             may not contain a wildcard or glob character.
+     *
+     * @throws RuntimeException
+     *         if the provided {@code word} cannot be added
+     */
+    public void addWord(final String word) {
+        forward.addWord(word);
+        reverse.addWord(reverse(word));
+    }
+
+    /**
+     * Removes a word from the trie, pruning the nodes which led only to
+     * it from both directions.
+     *
+     * @param word the word to remove
+     *
+     * @return true if the word was in the trie; false, otherwise
+     */
+    public boolean removeWord(final String word) {
+        return forward.removeWord(word)
+            && reverse.removeWord(reverse(word));
+    }
+
+    /**
+     * Checks if the specified search expression (including zero or more
+     * wildcard characters) matches one or more prefixes. Prefixes are
+     * always looked up in the forward trie.
+     *
+     * @param prefix the search expression to evaluate as potentially
+     *               being mapped to one or more word prefixes.
+     *
+     * @return true if a matching prefix exists; false, otherwise.
+     */
+    public boolean isPrefix(final String prefix) {
+        return forward.isPrefix(prefix);
+    }
+
+    /**
+     * Checks if the specified search expression (including zero or more
+     * wildcard characters) matches one or more complete words.
+     *
+     * @param searchExpression the search expression to evaluate as
+     *                         potentially mapped to one or more
+     *                         complete words.
+     *
+     * @return true if there is at least one complete, matching word;
+     *         false, otherwise.
+     */
+    public boolean isWord(final String searchExpression) {
+        return walksReverse(searchExpression)
+            ? reverse.isWord(reverse(searchExpression))
+            : forward.isWord(searchExpression);
+    }
+
+    /**
+     * Gets the set of complete words that match the given search term.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard characters
+     *
+     * @return the set of complete words which match the search term;
+     *         may be empty, if none match.
+     */
+    public Set<String> getMatchingWords(final String searchTerm) {
+        if (!walksReverse(searchTerm)) {
+            return forward.getMatchingWords(searchTerm);
+        }
+
+        final Set<String> matchingWords = new HashSet<>();
+
+        for (final String word : reverse.getMatchingWords(reverse(searchTerm))) {
+            matchingWords.add(reverse(word));
+        }
+
+        return matchingWords;
+    }
+
+    /**
+     * Counts the complete words that match the given search term,
+     * without building the words themselves.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard characters
+     *
+     * @return the number of complete words which match the search
+     *         term; zero, if none match.
+     */
+    public int countMatchingWords(final String searchTerm) {
+        return walksReverse(searchTerm)
+            ? reverse.countMatchingWords(reverse(searchTerm))
+            : forward.countMatchingWords(searchTerm);
+    }
+
+    /**
+     * Plans a search: decides whether it is cheaper to walk the trie of
+     * reversed words. That is the case when more literals follow the
+     * last wildcard or glob than precede the first one.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard and glob characters
+     *
+     * @return true to walk the reversed trie; false, to walk the
+     *         forward one
+     */
+    boolean walksReverse(final String searchTerm) {
+        if (null == searchTerm) {
+            return false;
+        }
+
+        int first = -1;
+        int last = -1;
+
+        for (int index = 0; index < searchTerm.length(); index++) {
+            if (!isLiteral(searchTerm.charAt(index))) {
+                if (first < 0) {
+                    first = index;
+                }
+
+                last = index;
+            }
+        }
+
+        if (first < 0) {
+            return false;
+        }
+
+        final int leadingLiterals = first;
+        final int trailingLiterals = searchTerm.length() - 1 - last;
+
+        return trailingLiterals > leadingLiterals;
+    }
+
+    /**
+     * Checks whether a character of a search term is a literal, rather
+     * than the wildcard or the glob.
+     *
+     * @param character the character to check
+     *
+     * @return true if {@code character} is a literal; false, otherwise
+     */
+    private boolean isLiteral(final char character) {
+        return !(null != wildcard && wildcard == character)
+            && !(null != glob && glob == character);
+    }
+
+    /**
+     * Spells a string backwards, one char at a time.
+     *
+     * @param string the string to reverse
+     *
+     * @return the chars of {@code string} in reverse order
+     */
+    private static String reverse(final String string) {
+        final char[] characters = new char[string.length()];
+
+        for (int index = 0; index < characters.length; index++) {
+            characters[index] = string.charAt(characters.length - 1 - index);
+        }
+
+        return new String(characters);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.Arrays;
+
+/**
+ * A set of characters, as written between square brackets in a search
+ * term: {@code [aeiou]}, {@code [a-z]}, or {@code [^xyz]} for every
+ * character but those listed.
+ *
+ * Membership of the ASCII characters is held as a 128-bit mask, in two
+ * longs, so testing a character is a shift and a mask; anything beyond
+ * ASCII falls back to a scan of the ranges which cover it.
+ */
+final class CharClass {
+    static final char OPEN = '[';
+    static final char CLOSE = ']';
+    static final char NEGATE = '^';
+    static final char RANGE = '-';
+
+    private static final char[] NO_RANGES = new char[0];
+
+    private final boolean negated;
+    private long lowMask;
+    private long highMask;
+    private char[] ranges;
+    private int rangeCount;
+
+    /**
+     * Constructs a new, empty CharClass.
+     *
+     * @param negated whether the class matches the characters which
+     *                are not added to it
+     */
+    CharClass(final boolean negated) {
+        this.negated = negated;
+        this.ranges = NO_RANGES;
+    }
+
+    /**
+     * Finds the closing bracket of the class which starts at an opening
+     * bracket.
+     *
+     * A closing bracket directly after the opening one (or after the
+     * {@code ^}) is a member of the class, rather than its end.
+     *
+     * @param term the text to search
+     * @param open the position of the opening bracket
+     *
+     * @return the position of the closing bracket
+     *
+     * @throws RuntimeException
+     *         if the class is not closed
+     */
+    static int findClose(final String term, final int open) {
+        int first = open + 1;
+
+        if (first < term.length() && NEGATE == term.charAt(first)) {
+            first++;
+        }
+
+        final int close = term.indexOf(CLOSE, first + 1);
+
+        if (close < 0) {
+            throw new RuntimeException(
+                "Passed unterminated character class in (" + term + ")."
+            );
+        }
+
+        return close;
+    }
+
+    /**
+     * Parses the class between a pair of brackets. A {@code -} between
+     * two members makes a range of them; at either end of the class,
+     * it stands for itself.
+     *
+     * @param term the text to parse
+     * @param open the position of the opening bracket
+     * @param close the position of the closing bracket, as found by
+     *              {@link #findClose(String, int)}
+     *
+     * @return the parsed class
+     *
+     * @throws RuntimeException
+     *         if a range runs backwards
+     */
+    static CharClass parse(final String term, final int open, final int close) {
+        int index = open + 1;
+        final boolean negated = NEGATE == term.charAt(index);
+
+        if (negated) {
+            index++;
+        }
+
+        final CharClass charClass = new CharClass(negated);
+
+        while (index < close) {
+            final char from = term.charAt(index);
+
+            if (index + 2 < close && RANGE == term.charAt(index + 1)) {
+                final char to = term.charAt(index + 2);
+
+                if (to < from) {
+                    throw new RuntimeException(
+                        "Passed invalid range (" + from + RANGE + to
+                        + ") in (" + term + ")."
+                    );
+                }
+
+                charClass.add(from, to);
+                index += 3;
+            } else {
+                charClass.add(from, from);
+                index++;
+            }
+        }
+
+        return charClass;
+    }
+
+    /**
+     * Adds a range of characters to the class.
+     *
+     * @param from the first character of the range
+     * @param to the last character of the range, inclusive
+     */
+    void add(final char from, final char to) {
+        for (char character = from; character <= to && character < 128;
+                character++) {
+
+            if (character < 64) {
+                lowMask |= 1L << character;
+            } else {
+                highMask |= 1L << (character - 64);
+            }
+        }
+
+        if (to >= 128) {
+            if (ranges.length == rangeCount) {
+                ranges = Arrays.copyOf(ranges, Math.max(2, rangeCount * 2));
+            }
+
+            ranges[rangeCount++] = (char) Math.max(from, 128);
+            ranges[rangeCount++] = to;
+        }
+    }
+
+    /**
+     * Checks whether a character belongs to the class.
+     *
+     * @param character the character to check
+     *
+     * @return true if {@code character} is matched by the class; false,
+     *         otherwise
+     */
+    boolean matches(final char character) {
+        return negated != contains(character);
+    }
+
+    /**
+     * Checks whether a character was added to the class.
+     *
+     * @param character the character to check
+     *
+     * @return true if {@code character} falls in an added range
+     */
+    private boolean contains(final char character) {
+        if (character < 64) {
+            return 0 != (lowMask & (1L << character));
+        } else if (character < 128) {
+            return 0 != (highMask & (1L << (character - 64)));
+        }
+
+        for (int index = 0; index < rangeCount; index += 2) {
+            if (ranges[index] <= character && character <= ranges[index + 1]) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
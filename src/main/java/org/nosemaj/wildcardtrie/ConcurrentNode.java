@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A node in a Trie which may be read and written by many threads at
+ * once.
+ *
+ * The children of a node are held in an immutable {@link Children}
+ * snapshot: a pair of parallel arrays, sorted by character, which is
+ * never written once published. A reader loads the snapshot from a
+ * volatile field and searches it without any locking. A writer copies
+ * the snapshot with its new child in place, and publishes the copy
+ * with a compare-and-set; if another writer got there first, it tries
+ * again against the newer snapshot. So readers never block, and a
+ * child, once added, is never replaced.
+ */
+final class ConcurrentNode {
+    private static final Children NO_CHILDREN =
+        new Children(new char[0], new ConcurrentNode[0]);
+
+    private static final AtomicReferenceFieldUpdater<ConcurrentNode, Children>
+        CHILDREN = AtomicReferenceFieldUpdater.newUpdater(
+            ConcurrentNode.class, Children.class, "children"
+        );
+
+    private volatile Children children;
+    private volatile boolean completeWord;
+
+    /**
+     * Constructs a new ConcurrentNode, with no children.
+     */
+    ConcurrentNode() {
+        this.children = NO_CHILDREN;
+        this.completeWord = false;
+    }
+
+    /**
+     * Gets the child which represents a given character.
+     *
+     * @param key the character to look up
+     *
+     * @return the child for {@code key}, or null if there is none
+     */
+    ConcurrentNode getChild(final char key) {
+        final Children current = children;
+        final int index = current.indexOf(key);
+
+        return index >= 0 ? current.nodes[index] : null;
+    }
+
+    /**
+     * Gets the child which represents a given character, adding a new,
+     * empty one if there is none. Whichever thread adds the child
+     * first, every caller gets the same one.
+     *
+     * @param key the character the child represents
+     *
+     * @return the child for {@code key}
+     */
+    ConcurrentNode getOrAddChild(final char key) {
+        ConcurrentNode added = null;
+
+        while (true) {
+            final Children current = children;
+            int index = current.indexOf(key);
+
+            if (index >= 0) {
+                return current.nodes[index];
+            }
+
+            if (null == added) {
+                added = new ConcurrentNode();
+            }
+
+            index = -(index + 1);
+
+            final int count = current.keys.length;
+            final char[] keys = new char[count + 1];
+            final ConcurrentNode[] nodes = new ConcurrentNode[count + 1];
+
+            System.arraycopy(current.keys, 0, keys, 0, index);
+            System.arraycopy(current.nodes, 0, nodes, 0, index);
+            System.arraycopy(
+                current.keys, index, keys, index + 1, count - index
+            );
+            System.arraycopy(
+                current.nodes, index, nodes, index + 1, count - index
+            );
+
+            keys[index] = key;
+            nodes[index] = added;
+
+            final Children next = new Children(keys, nodes);
+
+            if (CHILDREN.compareAndSet(this, current, next)) {
+                return added;
+            }
+        }
+    }
+
+    /**
+     * Gets a snapshot of the children of this node, which later writes
+     * leave untouched.
+     *
+     * @return the children of this node, as they are now
+     */
+    Children getChildren() {
+        return children;
+    }
+
+    /**
+     * Marks this node as the end of a complete word. A node is never
+     * unmarked.
+     */
+    void setCompleteWord() {
+        this.completeWord = true;
+    }
+
+    /**
+     * Checks whether or not this node delimits a complete word.
+     *
+     * @return true if this node delimits a complete word; false,
+     *         otherwise
+     */
+    boolean isCompleteWord() {
+        return completeWord;
+    }
+
+    /**
+     * An immutable snapshot of the children of a node, sorted by
+     * character.
+     */
+    static final class Children {
+        private final char[] keys;
+        private final ConcurrentNode[] nodes;
+
+        /**
+         * Constructs a new snapshot. The arrays are owned by the
+         * snapshot from then on, and must not be written.
+         *
+         * @param keys the characters of the children, ascending
+         * @param nodes the children, in the same order as {@code keys}
+         */
+        private Children(final char[] keys, final ConcurrentNode[] nodes) {
+            this.keys = keys;
+            this.nodes = nodes;
+        }
+
+        /**
+         * Gets the number of children in the snapshot.
+         *
+         * @return the number of children
+         */
+        int size() {
+            return keys.length;
+        }
+
+        /**
+         * Gets the character of the child at a given position.
+         *
+         * @param index the position of the child, in {@code [0,
+         *              size())}
+         *
+         * @return the character of the child at {@code index}
+         */
+        char getKey(final int index) {
+            return keys[index];
+        }
+
+        /**
+         * Gets the child at a given position.
+         *
+         * @param index the position of the child, in {@code [0,
+         *              size())}
+         *
+         * @return the child at {@code index}
+         */
+        ConcurrentNode getNode(final int index) {
+            return nodes[index];
+        }
+
+        /**
+         * Finds the position of the child for a given character.
+         *
+         * @param key the character to look up
+         *
+         * @return the position of {@code key}, if present; otherwise,
+         *         {@code (-(insertion point) - 1)}
+         */
+        private int indexOf(final char key) {
+            return Arrays.binarySearch(keys, key);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * ConcurrentWildcardTrie is a Trie, with the search semantics of a
+ * {@link WildcardTrie}, which many threads may search and add words to
+ * at once, without any external locking.
+ *
+ * Searches never block, and never wait on a writer: each node's
+ * children are held in an immutable snapshot, which a writer replaces
+ * with a compare-and-set (see {@link ConcurrentNode}). Adding a word
+ * is linearizable; it takes effect at the moment its last node is
+ * marked as a complete word, after every node on its path has been
+ * linked in. From then on, every search which starts sees the word.
+ *
+ * A search which runs while words are being added sees each node's
+ * children as they were when it reached that node, so it sees every
+ * word added before it started, and may or may not see those added
+ * while it runs. Words may not be removed.
+ *
+ * Search terms may contain the wildcard, which matches any one
+ * character; the glob and character classes are not supported.
+ */
+public class ConcurrentWildcardTrie {
+    private final Character wildcard;
+    private final ConcurrentNode root;
+
+    /**
+     * Constructs a new ConcurrentWildcardTrie.
+     *
+     * @param wildcard the character to use as a single-character glob;
+     *                 may be null
+     */
+    public ConcurrentWildcardTrie(final Character wildcard) {
+        this.wildcard = wildcard;
+        this.root = new ConcurrentNode();
+    }
+
+    /**
+     * Constructs a new ConcurrentWildcardTrie, using the default
+     * wildcard character.
+     */
+    public ConcurrentWildcardTrie() {
+        this(Words.DEFAULT_WILDCARD);
+    }
+
+    /**
+     * Adds a set of words to the trie. Each word is added atomically,
+     * but the set as a whole is not.
+     *
+     * @param words the words to add to the trie. Each word must be
+     *              non-empty and may not contain a wildcard character.
+     *
+     * @throws RuntimeException
+     *         if any of the provided words cannot be added
+     */
+    public void addWords(final Set<String> words) {
+        if (null != words) {
+            words.forEach(word -> addWord(word));
+        }
+    }
+
+    /**
+     * Adds a word to the trie. May be called from many threads at
+     * once.
+     *
+     * @param word the word to add to the trie. Must be non-empty and
+     *             may not contain a wildcard character.
+     *
+     * @throws RuntimeException
+     *         if the provided {@code word} cannot be added
+     */
+    public void addWord(final String word) {
+        Words.check(word, wildcard);
+
+        ConcurrentNode currentNode = root;
+
+        for (int index = 0; index < word.length(); index++) {
+            currentNode = currentNode.getOrAddChild(word.charAt(index));
+        }
+
+        currentNode.setCompleteWord();
+    }
+
+    /**
+     * Checks if the specified search expression (including zero or more
+     * wildcard characters) matches one or more prefixes.
+     *
+     * @param prefix the search expression to evaluate as potentially
+     *               being mapped to one or more word prefixes.
+     *
+     * @return true if a matching prefix exists; false, otherwise.
+     */
+    public boolean isPrefix(final String prefix) {
+        return null != prefix && !prefix.isEmpty()
+            && hasMatch(root, prefix, 0, true);
+    }
+
+    /**
+     * Checks if the specified search expression (including zero or more
+     * wildcard characters) matches one or more complete words.
+     *
+     * @param searchExpression the search expression to evaluate as
+     *                         potentially mapped to one or more
+     *                         complete words.
+     *
+     * @return true if there is at least one complete, matching word;
+     *         false, otherwise.
+     */
+    public boolean isWord(final String searchExpression) {
+        return null != searchExpression && !searchExpression.isEmpty()
+            && hasMatch(root, searchExpression, 0, false);
+    }
+
+    /**
+     * Gets the set of complete words that match the given search term.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard characters
+     *
+     * @return the set of complete words which match the search term;
+     *         may be empty, if none match.
+     */
+    public Set<String> getMatchingWords(final String searchTerm) {
+        final Set<String> matchingWords = new HashSet<>();
+
+        if (null == searchTerm || searchTerm.isEmpty()) {
+            return matchingWords;
+        }
+
+        collectMatchingWords(
+            root,
+            searchTerm,
+            new char[searchTerm.length()],
+            0,
+            matchingWords
+        );
+
+        return matchingWords;
+    }
+
+    /**
+     * Counts the complete words that match the given search term,
+     * without building the words themselves.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard characters
+     *
+     * @return the number of complete words which match the search
+     *         term; zero, if none match.
+     */
+    public int countMatchingWords(final String searchTerm) {
+        if (null == searchTerm || searchTerm.isEmpty()) {
+            return 0;
+        }
+
+        return countMatchingWords(root, searchTerm, 0);
+    }
+
+    /**
+     * Gets the number of nodes in the trie, including its root.
+     *
+     * @return the number of nodes in the trie
+     */
+    public int getNodeCount() {
+        final Deque<ConcurrentNode> stack = new ArrayDeque<>();
+        int count = 0;
+
+        stack.push(root);
+
+        while (!stack.isEmpty()) {
+            final ConcurrentNode.Children children = stack.pop().getChildren();
+            count++;
+
+            for (int child = 0; child < children.size(); child++) {
+                stack.push(children.getNode(child));
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Walks the trie to find whether any node reachable by a search
+     * term is a complete word or, alternatively, a prefix.
+     *
+     * @param node the node from which to start the walk
+     * @param searchTerm the term we are using to search
+     * @param index the index into the searchTerm for the current
+     *              recursion
+     * @param prefix whether to look for a node with children, rather
+     *               than a node which delimits a complete word
+     *
+     * @return true if a matching node is reachable; false, otherwise
+     */
+    private boolean hasMatch(
+            final ConcurrentNode node,
+            final String searchTerm,
+            final int index,
+            final boolean prefix) {
+
+        if (searchTerm.length() == index) {
+            return prefix
+                ? 0 != node.getChildren().size()
+                : node.isCompleteWord();
+        }
+
+        final char character = searchTerm.charAt(index);
+
+        if (!isWildcard(character)) {
+            final ConcurrentNode child = node.getChild(character);
+
+            return null != child
+                && hasMatch(child, searchTerm, index + 1, prefix);
+        }
+
+        final ConcurrentNode.Children children = node.getChildren();
+
+        for (int child = 0; child < children.size(); child++) {
+            if (hasMatch(
+                    children.getNode(child), searchTerm, index + 1, prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Collects the complete words that match the given search term.
+     *
+     * @param node the node at which to start the search
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard characters
+     * @param path the characters walked so far, in {@code [0, index)}
+     * @param index the index into {@code searchTerm}, used during
+     *              recursion
+     * @param matchingWords the set into which matches are collected
+     */
+    private void collectMatchingWords(
+            final ConcurrentNode node,
+            final String searchTerm,
+            final char[] path,
+            final int index,
+            final Set<String> matchingWords) {
+
+        if (searchTerm.length() == index) {
+            if (node.isCompleteWord()) {
+                matchingWords.add(new String(path));
+            }
+
+            return;
+        }
+
+        final char character = searchTerm.charAt(index);
+
+        if (!isWildcard(character)) {
+            final ConcurrentNode child = node.getChild(character);
+
+            if (null != child) {
+                path[index] = character;
+                collectMatchingWords(
+                    child, searchTerm, path, index + 1, matchingWords
+                );
+            }
+
+            return;
+        }
+
+        final ConcurrentNode.Children children = node.getChildren();
+
+        for (int child = 0; child < children.size(); child++) {
+            path[index] = children.getKey(child);
+            collectMatchingWords(
+                children.getNode(child),
+                searchTerm,
+                path,
+                index + 1,
+                matchingWords
+            );
+        }
+    }
+
+    /**
+     * Counts the complete words reachable by a search term.
+     *
+     * @param node the node from which to start the walk
+     * @param searchTerm the term we are using to search
+     * @param index the index into the searchTerm for the current
+     *              recursion
+     *
+     * @return the number of complete words reachable from {@code node}
+     *         by the rest of the search term
+     */
+    private int countMatchingWords(
+            final ConcurrentNode node,
+            final String searchTerm,
+            final int index) {
+
+        if (searchTerm.length() == index) {
+            return node.isCompleteWord() ? 1 : 0;
+        }
+
+        final char character = searchTerm.charAt(index);
+
+        if (!isWildcard(character)) {
+            final ConcurrentNode child = node.getChild(character);
+
+            return null == child
+                ? 0
+                : countMatchingWords(child, searchTerm, index + 1);
+        }
+
+        final ConcurrentNode.Children children = node.getChildren();
+        int count = 0;
+
+        for (int child = 0; child < children.size(); child++) {
+            count += countMatchingWords(
+                children.getNode(child), searchTerm, index + 1
+            );
+        }
+
+        return count;
+    }
+
+    /**
+     * Checks whether a character of a search term is the wildcard.
+     *
+     * @param character the character to check
+     *
+     * @return true if {@code character} is the wildcard; false,
+     *         otherwise
+     */
+    private boolean isWildcard(final char character) {
+        return null != wildcard && wildcard == character;
+    }
+}
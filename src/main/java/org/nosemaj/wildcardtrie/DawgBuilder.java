@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a directed acyclic word graph (DAWG): the minimal automaton
+ * which accepts a set of words.
+ *
+ * A plain Trie shares common prefixes only. A DAWG also shares every
+ * subtree which is equivalent to another -- that is, which delimits
+ * the same set of suffixes -- so endings like "-ing" and "-ness" are
+ * stored once rather than once per word. Words must be added in
+ * ascending order; this lets the graph be minimized incrementally, as
+ * each word is added, using the algorithm of Daciuk et al. (2000).
+ *
+ * The result is packed into a {@link FrozenWildcardTrie}, which
+ * answers the same wildcard and, if the builder takes them, character
+ * class searches as a {@link WildcardTrie} built from the same words;
+ * it has no glob.
+ */
+public class DawgBuilder {
+    private final Character wildcard;
+    private final boolean classes;
+    private final Node root;
+    private final Map<Signature, Node> register;
+    private final List<Node> path;
+
+    private String previousWord;
+    private boolean built;
+
+    /**
+     * Constructs a new DawgBuilder.
+     *
+     * @param wildcard the character to use as a single-character glob
+     * @param classes whether the graph takes {@code [} to open a
+     *                character class, and so reserves it
+     */
+    public DawgBuilder(final Character wildcard, final boolean classes) {
+        this.wildcard = wildcard;
+        this.classes = classes;
+        this.root = new Node();
+        this.register = new HashMap<>();
+        this.path = new ArrayList<>();
+        this.previousWord = "";
+        this.built = false;
+
+        this.path.add(root);
+    }
+
+    /**
+     * Constructs a new DawgBuilder, without character classes.
+     *
+     * @param wildcard the character to use as a single-character glob
+     */
+    public DawgBuilder(final Character wildcard) {
+        this(wildcard, false);
+    }
+
+    /**
+     * Constructs a new DawgBuilder, using the default wildcard
+     * character, without character classes.
+     */
+    public DawgBuilder() {
+        this(Words.DEFAULT_WILDCARD);
+    }
+
+    /**
+     * Adds a sequence of words to the graph.
+     *
+     * @param words the words to add, in ascending order. Each word must
+     *              be non-empty and may not contain a wildcard
+     *              character.
+     *
+     * @return this builder
+     *
+     * @throws RuntimeException
+     *         if any of the provided words cannot be added
+     */
+    public DawgBuilder addWords(final Iterator<String> words) {
+        if (null != words) {
+            words.forEachRemaining(word -> addWord(word));
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds a word to the graph.
+     *
+     * @param word the word to add to the graph. Must be non-empty, may
+     *             not contain a wildcard character, and may not sort
+     *             before the previous word added. Repeating the
+     *             previous word has no effect.
+     *
+     * @return this builder
+     *
+     * @throws RuntimeException
+     *         if the provided {@code word} cannot be added, or if the
+     *         graph has already been built
+     */
+    public DawgBuilder addWord(final String word) {
+        if (built) {
+            throw new RuntimeException(
+                "Passed word (" + word + ") to addWord() after build()."
+            );
+        }
+
+        Words.check(word, wildcard, classes ? CharClass.OPEN : null);
+
+        final int order = word.compareTo(previousWord);
+
+        if (order < 0) {
+            throw new RuntimeException(
+                "Passed out-of-order word (" + word + ") to addWord(); it"
+                + " sorts before (" + previousWord + ")."
+            );
+        }
+
+        if (0 == order) {
+            return this;
+        }
+
+        int common = 0;
+
+        while (common < previousWord.length()
+                && previousWord.charAt(common) == word.charAt(common)) {
+            common++;
+        }
+
+        // Nothing after the common prefix of the previous word can
+        // change any more, so it can be minimized now.
+        minimize(common);
+
+        Node currentNode = path.get(common);
+
+        for (int index = common; index < word.length(); index++) {
+            final Node nextNode = new Node(word.charAt(index));
+            currentNode.putChild(word.charAt(index), nextNode);
+            path.add(nextNode);
+            currentNode = nextNode;
+        }
+
+        currentNode.setCompleteWord(true);
+        previousWord = word;
+
+        return this;
+    }
+
+    /**
+     * Finishes minimizing the graph, and packs it for searching. No
+     * more words may be added afterwards.
+     *
+     * @return a frozen trie holding the words added
+     */
+    public FrozenWildcardTrie build() {
+        minimize(0);
+        register.clear();
+        built = true;
+
+        return new FrozenWildcardTrie(root, wildcard, null, classes);
+    }
+
+    /**
+     * Replaces each node on the path of the previous word, deeper than
+     * a given depth, with an equivalent registered node if there is
+     * one; otherwise, registers it. Works from the deepest node up, so
+     * that the children of a node are always minimized before it is.
+     *
+     * @param depth the depth of the deepest node to keep on the path
+     */
+    private void minimize(final int depth) {
+        for (int index = path.size() - 1; index > depth; index--) {
+            final Node child = path.remove(index);
+            final Node parent = path.get(index - 1);
+            final char key = previousWord.charAt(index - 1);
+            final Signature signature = new Signature(child);
+            final Node equivalent = register.get(signature);
+
+            if (null == equivalent) {
+                register.put(signature, child);
+            } else {
+                parent.putChild(key, equivalent);
+            }
+        }
+    }
+
+    /**
+     * Identifies a node by what it accepts: whether it delimits a
+     * complete word, and its outgoing characters and the (already
+     * minimized) nodes they lead to.
+     */
+    private static final class Signature {
+        private final Node node;
+        private final int hashCode;
+
+        /**
+         * Constructs a new Signature.
+         *
+         * @param node the node to identify; it must not change while
+         *             the signature is in use
+         */
+        Signature(final Node node) {
+            int hash = node.isCompleteWord() ? 1 : 0;
+
+            for (int child = 0; child < node.getChildCount(); child++) {
+                hash = 31 * hash + node.getChildKey(child);
+                hash = 31 * hash
+                    + System.identityHashCode(node.getChildAt(child));
+            }
+
+            this.node = node;
+            this.hashCode = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (!(object instanceof Signature)) {
+                return false;
+            }
+
+            final Node other = ((Signature) object).node;
+
+            if (node.isCompleteWord() != other.isCompleteWord()
+                    || node.getChildCount() != other.getChildCount()) {
+                return false;
+            }
+
+            for (int child = 0; child < node.getChildCount(); child++) {
+                if (node.getChildKey(child) != other.getChildKey(child)
+                        || node.getChildAt(child) != other.getChildAt(child)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
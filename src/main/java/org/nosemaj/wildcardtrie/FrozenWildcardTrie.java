@@ -0,0 +1,532 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * FrozenWildcardTrie is an immutable, array-packed copy of a {@link
+ * WildcardTrie}, with the same search semantics: the wildcard, the glob
+ * and, if the trie takes them, character classes.
+ *
+ * Nodes are numbered breadth-first from the root (node zero). The
+ * outgoing edges of node {@code n} occupy positions {@code
+ * [firstEdge[n], firstEdge[n + 1])} of the {@code labels} and {@code
+ * targets} arrays, sorted by label; the bits of {@code completeWords}
+ * flag the nodes which delimit complete words. There are no per-node
+ * objects to chase, and the top levels of the trie, which every search
+ * passes through, sit next to each other in memory.
+ *
+ * All state is held in final fields and never written after
+ * construction, so an instance may be shared freely between threads
+ * without locking.
+ */
+public final class FrozenWildcardTrie {
+    private static final int ROOT = 0;
+
+    private final Character wildcard;
+    private final Character glob;
+    private final boolean classes;
+    private final int[] firstEdge;
+    private final char[] labels;
+    private final int[] targets;
+    private final long[] completeWords;
+
+    /**
+     * Packs the trie rooted at a node.
+     *
+     * A node which can be reached along more than one path is packed
+     * once, and shared, so the root may equally be that of a directed
+     * acyclic word graph.
+     *
+     * @param root the root of the trie to pack
+     * @param wildcard the character to use as a single-character glob;
+     *                 may be null
+     * @param glob the character to use as a zero-or-more character
+     *             glob; may be null
+     * @param classes whether to take {@code [} to open a character
+     *                class
+     */
+    FrozenWildcardTrie(
+            final Node root,
+            final Character wildcard,
+            final Character glob,
+            final boolean classes) {
+
+        final Map<Node, Integer> ids = new IdentityHashMap<>();
+        final Queue<Node> queue = new ArrayDeque<>();
+        final Queue<Node> order = new ArrayDeque<>();
+        int edgeCount = 0;
+
+        ids.put(root, ids.size());
+        queue.add(root);
+
+        while (!queue.isEmpty()) {
+            final Node current = queue.remove();
+            order.add(current);
+            edgeCount += current.getChildCount();
+
+            for (int child = 0; child < current.getChildCount(); child++) {
+                final Node next = current.getChildAt(child);
+
+                if (!ids.containsKey(next)) {
+                    ids.put(next, ids.size());
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.wildcard = wildcard;
+        this.glob = glob;
+        this.classes = classes;
+        this.firstEdge = new int[ids.size() + 1];
+        this.labels = new char[edgeCount];
+        this.targets = new int[edgeCount];
+        this.completeWords = new long[(ids.size() + 63) >>> 6];
+
+        int id = 0;
+        int edge = 0;
+
+        for (final Node current : order) {
+            firstEdge[id] = edge;
+
+            if (current.isCompleteWord()) {
+                completeWords[id >>> 6] |= 1L << id;
+            }
+
+            for (int child = 0; child < current.getChildCount(); child++) {
+                labels[edge] = current.getChildKey(child);
+                targets[edge] = ids.get(current.getChildAt(child));
+                edge++;
+            }
+
+            id++;
+        }
+
+        firstEdge[id] = edge;
+    }
+
+    /**
+     * Checks if the specified search expression (including zero or more
+     * wildcard or glob characters) matches one or more prefixes.
+     *
+     * @param prefix the search expression to evaluate as potentially
+     *               being mapped to one or more word prefixes.
+     *
+     * @return true if a matching prefix exists; false, otherwise.
+     */
+    public boolean isPrefix(final String prefix) {
+        return hasMatch(compile(prefix), true);
+    }
+
+    /**
+     * Checks if the specified search expression (including zero or more
+     * wildcard or glob characters) matches one or more complete words.
+     *
+     * @param searchExpression the search expression to evaluate as
+     *                         potentially mapped to one or more
+     *                         complete words.
+     *
+     * @return true if there is at least one complete, matching word;
+     *         false, otherwise.
+     */
+    public boolean isWord(final String searchExpression) {
+        return hasMatch(compile(searchExpression), false);
+    }
+
+    /**
+     * Gets the set of complete words that match the given search term.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     *
+     * @return the set of complete words which match the search term;
+     *         may be empty, if none match.
+     */
+    public Set<String> getMatchingWords(final String searchTerm) {
+        final Set<String> matchingWords = new HashSet<>();
+        final SearchPattern pattern = compile(searchTerm);
+
+        if (null == pattern) {
+            return matchingWords;
+        } else if (pattern.hasGlob()) {
+            final GlobSearch search = new GlobSearch(pattern);
+
+            collectMatchingWords(
+                ROOT, search, search.start(), new StringBuilder(),
+                matchingWords
+            );
+        } else {
+            collectMatchingWords(
+                ROOT, pattern, new char[pattern.length()], 0, matchingWords
+            );
+        }
+
+        return matchingWords;
+    }
+
+    /**
+     * Counts the complete words that match the given search term,
+     * without building the words themselves.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     *
+     * @return the number of complete words which match the search
+     *         term; zero, if none match.
+     */
+    public int countMatchingWords(final String searchTerm) {
+        final SearchPattern pattern = compile(searchTerm);
+
+        if (null == pattern) {
+            return 0;
+        } else if (pattern.hasGlob()) {
+            final GlobSearch search = new GlobSearch(pattern);
+
+            return countMatchingWords(ROOT, search, search.start());
+        }
+
+        return countMatchingWords(ROOT, pattern, 0);
+    }
+
+    /**
+     * Gets the number of nodes in the trie, including its root.
+     *
+     * @return the number of nodes in the trie
+     */
+    public int getNodeCount() {
+        return firstEdge.length - 1;
+    }
+
+    /**
+     * Checks whether any node reachable by a search pattern is a
+     * complete word or, alternatively, a prefix.
+     *
+     * @param pattern the compiled search term; may be null
+     * @param prefix whether to look for a node with children, rather
+     *               than a node which delimits a complete word
+     *
+     * @return true if a matching node is reachable; false, otherwise
+     */
+    private boolean hasMatch(
+            final SearchPattern pattern,
+            final boolean prefix) {
+
+        if (null == pattern) {
+            return false;
+        } else if (pattern.hasGlob()) {
+            final GlobSearch search = new GlobSearch(pattern);
+
+            return hasMatch(ROOT, search, search.start(), prefix);
+        }
+
+        return hasMatch(ROOT, pattern, 0, prefix);
+    }
+
+    /**
+     * Walks the trie to find whether any node reachable by a search
+     * pattern without a glob is a complete word or, alternatively, a
+     * prefix.
+     *
+     * @param node the node from which to start the walk
+     * @param pattern the compiled search term
+     * @param index the index into the pattern for the current
+     *              recursion
+     * @param prefix whether to look for a node with children, rather
+     *               than a node which delimits a complete word
+     *
+     * @return true if a matching node is reachable; false, otherwise
+     */
+    private boolean hasMatch(
+            final int node,
+            final SearchPattern pattern,
+            final int index,
+            final boolean prefix) {
+
+        if (pattern.length() == index) {
+            return prefix ? hasChildren(node) : isCompleteWord(node);
+        }
+
+        if (pattern.isLiteral(index)) {
+            final int edge = findEdge(node, pattern.getLiteral(index));
+
+            return edge >= 0
+                && hasMatch(targets[edge], pattern, index + 1, prefix);
+        }
+
+        for (int edge = firstEdge[node]; edge < firstEdge[node + 1]; edge++) {
+            if (pattern.matches(index, labels[edge])
+                    && hasMatch(targets[edge], pattern, index + 1, prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Walks the trie to find whether any node reachable by a search
+     * pattern with a glob is a complete word or, alternatively, a
+     * prefix.
+     *
+     * @param node the node from which to start the walk
+     * @param search the glob search for the compiled search term
+     * @param state the pattern positions reachable at {@code node}
+     * @param prefix whether to look for a node with children, rather
+     *               than a node which delimits a complete word
+     *
+     * @return true if a matching node is reachable; false, otherwise
+     */
+    private boolean hasMatch(
+            final int node,
+            final GlobSearch search,
+            final long state,
+            final boolean prefix) {
+
+        if (0 == state) {
+            return false;
+        }
+
+        if (search.accepts(state)
+                && (prefix ? hasChildren(node) : isCompleteWord(node))) {
+            return true;
+        }
+
+        for (int edge = firstEdge[node]; edge < firstEdge[node + 1]; edge++) {
+            final long next = search.step(state, labels[edge]);
+
+            if (hasMatch(targets[edge], search, next, prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Collects the complete words that match a search pattern without
+     * a glob.
+     *
+     * @param node the node at which to start the search
+     * @param pattern the compiled search term
+     * @param path the characters walked so far, in {@code [0, index)}
+     * @param index the index into the pattern, used during recursion
+     * @param matchingWords the set into which matches are collected
+     */
+    private void collectMatchingWords(
+            final int node,
+            final SearchPattern pattern,
+            final char[] path,
+            final int index,
+            final Set<String> matchingWords) {
+
+        if (pattern.length() == index) {
+            if (isCompleteWord(node)) {
+                matchingWords.add(new String(path));
+            }
+
+            return;
+        }
+
+        if (pattern.isLiteral(index)) {
+            final char character = pattern.getLiteral(index);
+            final int edge = findEdge(node, character);
+
+            if (edge >= 0) {
+                path[index] = character;
+                collectMatchingWords(
+                    targets[edge], pattern, path, index + 1, matchingWords
+                );
+            }
+
+            return;
+        }
+
+        for (int edge = firstEdge[node]; edge < firstEdge[node + 1]; edge++) {
+            if (pattern.matches(index, labels[edge])) {
+                path[index] = labels[edge];
+                collectMatchingWords(
+                    targets[edge], pattern, path, index + 1, matchingWords
+                );
+            }
+        }
+    }
+
+    /**
+     * Collects the complete words that match a search pattern with a
+     * glob. The set of pattern positions the path can have reached is
+     * carried down the walk, as in {@link GlobSearch}; a frozen trie
+     * keeps no word lengths, so only dead states are cut off.
+     *
+     * @param node the node reached by {@code path}
+     * @param search the glob search for the compiled search term
+     * @param state the pattern positions reachable at {@code node}
+     * @param path the characters walked to reach {@code node}
+     * @param matchingWords the set into which matches are collected
+     */
+    private void collectMatchingWords(
+            final int node,
+            final GlobSearch search,
+            final long state,
+            final StringBuilder path,
+            final Set<String> matchingWords) {
+
+        if (search.accepts(state) && isCompleteWord(node)) {
+            matchingWords.add(path.toString());
+        }
+
+        final int depth = path.length();
+
+        for (int edge = firstEdge[node]; edge < firstEdge[node + 1]; edge++) {
+            final long next = search.step(state, labels[edge]);
+
+            if (0 != next) {
+                path.append(labels[edge]);
+                collectMatchingWords(
+                    targets[edge], search, next, path, matchingWords
+                );
+                path.setLength(depth);
+            }
+        }
+    }
+
+    /**
+     * Counts the complete words reachable by a search pattern without
+     * a glob.
+     *
+     * @param node the node from which to start the walk
+     * @param pattern the compiled search term
+     * @param index the index into the pattern for the current
+     *              recursion
+     *
+     * @return the number of complete words reachable from {@code node}
+     *         by the rest of the search term
+     */
+    private int countMatchingWords(
+            final int node,
+            final SearchPattern pattern,
+            final int index) {
+
+        if (pattern.length() == index) {
+            return isCompleteWord(node) ? 1 : 0;
+        }
+
+        if (pattern.isLiteral(index)) {
+            final int edge = findEdge(node, pattern.getLiteral(index));
+
+            return edge < 0
+                ? 0
+                : countMatchingWords(targets[edge], pattern, index + 1);
+        }
+
+        int count = 0;
+
+        for (int edge = firstEdge[node]; edge < firstEdge[node + 1]; edge++) {
+            if (pattern.matches(index, labels[edge])) {
+                count += countMatchingWords(targets[edge], pattern, index + 1);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Counts the complete words reachable by a search pattern with a
+     * glob.
+     *
+     * @param node the node from which to count
+     * @param search the glob search for the compiled search term
+     * @param state the pattern positions reachable at {@code node}
+     *
+     * @return the number of matching words at or below {@code node}
+     */
+    private int countMatchingWords(
+            final int node,
+            final GlobSearch search,
+            final long state) {
+
+        int count = search.accepts(state) && isCompleteWord(node) ? 1 : 0;
+
+        for (int edge = firstEdge[node]; edge < firstEdge[node + 1]; edge++) {
+            final long next = search.step(state, labels[edge]);
+
+            if (0 != next) {
+                count += countMatchingWords(targets[edge], search, next);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Finds the edge out of a node with a given label.
+     *
+     * @param node the node whose edges to search
+     * @param character the label to look for
+     *
+     * @return the position of the edge, or a negative number if there
+     *         is none
+     */
+    private int findEdge(final int node, final char character) {
+        return Arrays.binarySearch(
+            labels, firstEdge[node], firstEdge[node + 1], character
+        );
+    }
+
+    /**
+     * Checks whether or not a node delimits a complete word.
+     *
+     * @param node the node to check
+     *
+     * @return true if {@code node} delimits a complete word; false,
+     *         otherwise
+     */
+    private boolean isCompleteWord(final int node) {
+        return 0 != (completeWords[node >>> 6] & (1L << node));
+    }
+
+    /**
+     * Checks whether or not a node has any children.
+     *
+     * @param node the node to check
+     *
+     * @return true if {@code node} has at least one child; false,
+     *         otherwise
+     */
+    private boolean hasChildren(final int node) {
+        return firstEdge[node] != firstEdge[node + 1];
+    }
+
+    /**
+     * Compiles a search term against this trie's wildcard, glob and
+     * classes.
+     *
+     * @param searchTerm the term to compile
+     *
+     * @return the compiled pattern, or null if the search term is null
+     *         or empty
+     */
+    private SearchPattern compile(final String searchTerm) {
+        return SearchPattern.compile(searchTerm, wildcard, glob, classes);
+    }
+}
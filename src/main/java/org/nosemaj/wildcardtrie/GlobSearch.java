@@ -0,0 +1,511 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Walks a Trie for the complete words that match a search pattern
+ * containing one or more globs.
+ *
+ * A glob can match a run of any length, so there may be many ways to
+ * line a path up against the pattern; trying each of them in turn
+ * takes exponential time on patterns such as {@code %a%b%c%}. Instead,
+ * the walk carries the set of every pattern position that the path so
+ * far can have reached, as the bits of a {@code long}, and each node of
+ * the trie is visited at most once, with all of its (node, position)
+ * states at the same time. A subtree is skipped as soon as no position
+ * is left which could match one of the word lengths below it.
+ *
+ * Children are visited in ascending character order, and a node before
+ * its children, so matches are found in ascending order.
+ */
+final class GlobSearch {
+    /** The most elements a pattern may have; one bit is for the end. */
+    static final int MAX_LENGTH = Long.SIZE - 1;
+
+    private final SearchPattern pattern;
+    private final long globs;
+    private final long accepting;
+
+    /**
+     * Constructs a new GlobSearch.
+     *
+     * @param pattern the compiled search term
+     *
+     * @throws RuntimeException
+     *         if the pattern has more than {@link #MAX_LENGTH} elements
+     */
+    GlobSearch(final SearchPattern pattern) {
+        if (pattern.length() > MAX_LENGTH) {
+            throw new RuntimeException(
+                "Passed search term with a glob and more than "
+                + MAX_LENGTH + " characters."
+            );
+        }
+
+        long globPositions = 0;
+
+        for (int position = 0; position < pattern.length(); position++) {
+            if (pattern.isGlob(position)) {
+                globPositions |= 1L << position;
+            }
+        }
+
+        this.pattern = pattern;
+        this.globs = globPositions;
+        this.accepting = 1L << pattern.length();
+    }
+
+    /**
+     * Collects the complete words that match the pattern.
+     *
+     * @param root the root of the trie
+     * @param matchingWords the set into which matches are collected
+     */
+    void collectMatchingWords(
+            final Node root,
+            final Set<String> matchingWords) {
+
+        final long state = prune(root, closure(1L));
+
+        if (0 != state) {
+            collectMatchingWords(
+                root, state, new StringBuilder(), matchingWords
+            );
+        }
+    }
+
+    /**
+     * Counts the complete words that match the pattern.
+     *
+     * @param root the root of the trie
+     *
+     * @return the number of complete words which match the pattern
+     */
+    int countMatchingWords(final Node root) {
+        final long state = prune(root, closure(1L));
+
+        return 0 == state ? 0 : countMatchingWords(root, state);
+    }
+
+    /**
+     * Checks whether the pattern matches any complete word or,
+     * alternatively, any prefix.
+     *
+     * @param root the root of the trie
+     * @param prefix whether to look for a node with children, rather
+     *               than a node which delimits a complete word
+     *
+     * @return true if a matching node is reachable; false, otherwise
+     */
+    boolean hasMatch(final Node root, final boolean prefix) {
+        final long state = closure(1L);
+
+        return hasMatch(root, prefix ? state : prune(root, state), prefix);
+    }
+
+    /**
+     * Gets an iterator over the complete words that match the pattern,
+     * in ascending order.
+     *
+     * @param root the root of the trie
+     *
+     * @return an iterator over the matching words
+     */
+    AbstractMatchIterator iterator(final Node root) {
+        return new Matches(root);
+    }
+
+    /**
+     * Gets the pattern positions reachable at the root, for a walk
+     * driven from outside this class.
+     *
+     * @param root the root of the trie
+     *
+     * @return the positions reachable at the root; zero, if no word
+     *         can match
+     */
+    long start(final Node root) {
+        return prune(root, closure(1L));
+    }
+
+    /**
+     * Gets the pattern positions reachable before any character, for a
+     * walk driven from outside this class over a trie which carries no
+     * word lengths to prune by.
+     *
+     * @return the positions reachable at the root
+     */
+    long start() {
+        return closure(1L);
+    }
+
+    /**
+     * Moves a walk driven from outside this class down to a child.
+     *
+     * @param child the child being visited
+     * @param state the pattern positions reachable at its parent
+     * @param character the character of {@code child}
+     *
+     * @return the positions reachable at {@code child}; zero, if no
+     *         word below it can match
+     */
+    long advance(final Node child, final long state, final char character) {
+        return prune(child, step(state, character));
+    }
+
+    /**
+     * Checks whether a state has matched the whole pattern.
+     *
+     * @param state the pattern positions reachable at a node
+     *
+     * @return true if the path to the node matches the pattern
+     */
+    boolean accepts(final long state) {
+        return 0 != (state & accepting);
+    }
+
+    /**
+     * Collects the complete words below a node.
+     *
+     * @param node the node reached by {@code path}
+     * @param state the pattern positions reachable at {@code node}
+     * @param path the characters walked to reach {@code node}
+     * @param matchingWords the set into which matches are collected
+     */
+    private void collectMatchingWords(
+            final Node node,
+            final long state,
+            final StringBuilder path,
+            final Set<String> matchingWords) {
+
+        if (0 != (state & accepting) && node.isCompleteWord()) {
+            matchingWords.add(path.toString());
+        }
+
+        final int depth = path.length();
+        final int literal = literalPosition(state);
+
+        if (literal >= 0) {
+            final char character = pattern.getLiteral(literal);
+            final Node child = node.getChild(character);
+
+            if (null != child) {
+                final long next = prune(child, step(state, character));
+
+                if (0 != next) {
+                    path.append(character);
+                    collectMatchingWords(child, next, path, matchingWords);
+                    path.setLength(depth);
+                }
+            }
+
+            return;
+        }
+
+        for (int index = 0; index < node.getChildCount(); index++) {
+            final char character = node.getChildKey(index);
+            final Node child = node.getChildAt(index);
+            final long next = prune(child, step(state, character));
+
+            if (0 != next) {
+                path.append(character);
+                collectMatchingWords(child, next, path, matchingWords);
+                path.setLength(depth);
+            }
+        }
+    }
+
+    /**
+     * Counts the complete words below a node.
+     *
+     * @param node the node from which to count
+     * @param state the pattern positions reachable at {@code node}
+     *
+     * @return the number of matching words at or below {@code node}
+     */
+    private int countMatchingWords(final Node node, final long state) {
+        int count = 0 != (state & accepting) && node.isCompleteWord() ? 1 : 0;
+        final int literal = literalPosition(state);
+
+        if (literal >= 0) {
+            final char character = pattern.getLiteral(literal);
+            final Node child = node.getChild(character);
+
+            if (null != child) {
+                final long next = prune(child, step(state, character));
+
+                if (0 != next) {
+                    count += countMatchingWords(child, next);
+                }
+            }
+
+            return count;
+        }
+
+        for (int index = 0; index < node.getChildCount(); index++) {
+            final Node child = node.getChildAt(index);
+            final long next =
+                prune(child, step(state, node.getChildKey(index)));
+
+            if (0 != next) {
+                count += countMatchingWords(child, next);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Checks whether a matching node is reachable from a node. Length
+     * pruning only applies to complete words, so it is not used when
+     * looking for a prefix.
+     *
+     * @param node the node from which to start the walk
+     * @param state the pattern positions reachable at {@code node}
+     * @param prefix whether to look for a node with children, rather
+     *               than a node which delimits a complete word
+     *
+     * @return true if a matching node is reachable; false, otherwise
+     */
+    private boolean hasMatch(
+            final Node node,
+            final long state,
+            final boolean prefix) {
+
+        if (0 == state) {
+            return false;
+        }
+
+        if (0 != (state & accepting)
+                && (prefix
+                    ? 0 != node.getChildCount()
+                    : node.isCompleteWord())) {
+            return true;
+        }
+
+        for (int index = 0; index < node.getChildCount(); index++) {
+            final Node child = node.getChildAt(index);
+            final long next = step(state, node.getChildKey(index));
+
+            if (hasMatch(child, prefix ? next : prune(child, next), prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds to a set of positions every position which can be reached
+     * from it by letting a glob match the empty string.
+     *
+     * @param state a set of pattern positions
+     *
+     * @return {@code state}, and every position after a run of globs
+     *         starting in {@code state}
+     */
+    private long closure(final long state) {
+        long closed = state;
+        long pending = state & globs;
+
+        while (0 != pending) {
+            final long after = Long.lowestOneBit(pending) << 1;
+            pending &= pending - 1;
+
+            if (0 == (closed & after)) {
+                closed |= after;
+                pending |= after & globs;
+            }
+        }
+
+        return closed;
+    }
+
+    /**
+     * Finds the positions reached by matching one more character.
+     *
+     * @param state the pattern positions reached so far
+     * @param character the next character of the path
+     *
+     * @return the pattern positions reached after {@code character}
+     */
+    long step(final long state, final char character) {
+        long next = state & globs;
+        long remaining = state & ~globs & ~accepting;
+
+        while (0 != remaining) {
+            final int position = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+
+            if (pattern.matches(position, character)) {
+                next |= 1L << (position + 1);
+            }
+        }
+
+        return closure(next);
+    }
+
+    /**
+     * Drops the positions from which no word below a node could be
+     * matched, judging by word lengths alone.
+     *
+     * @param node the node reached
+     * @param state the pattern positions reachable at {@code node}
+     *
+     * @return the positions of {@code state} which may still match
+     */
+    private long prune(final Node node, final long state) {
+        long pruned = state;
+        long remaining = state;
+
+        while (0 != remaining) {
+            final int position = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+
+            if (!pattern.canMatchBelow(node, position)) {
+                pruned &= ~(1L << position);
+            }
+        }
+
+        return pruned;
+    }
+
+    /**
+     * Checks whether the only position left is a literal, in which case
+     * there is at most one child worth visiting.
+     *
+     * @param state the pattern positions reachable at a node
+     *
+     * @return the position of the literal, or -1 if there is not just
+     *         one
+     */
+    private int literalPosition(final long state) {
+        if (1 != Long.bitCount(state) || 0 != (state & accepting)) {
+            return -1;
+        }
+
+        final int position = Long.numberOfTrailingZeros(state);
+
+        return pattern.isLiteral(position) ? position : -1;
+    }
+
+    /**
+     * Lazily walks the trie, with an explicit stack of (node, state,
+     * cursor) frames, one for each character of the current path.
+     */
+    private final class Matches extends AbstractMatchIterator {
+        private final StringBuilder path;
+
+        private Node[] nodes;
+        private long[] states;
+        private int[] cursors;
+        private int depth;
+
+        /**
+         * Constructs a new Matches iterator.
+         *
+         * @param root the root of the trie
+         */
+        Matches(final Node root) {
+            final int capacity = pattern.length() + 1;
+
+            this.path = new StringBuilder(capacity);
+            this.nodes = new Node[capacity];
+            this.states = new long[capacity];
+            this.cursors = new int[capacity];
+
+            nodes[0] = root;
+            states[0] = prune(root, closure(1L));
+            depth = 0 == states[0] ? -1 : 0;
+            findNext();
+        }
+
+        @Override
+        Node advance() {
+            while (depth >= 0) {
+                final Node node = nodes[depth];
+                final long state = states[depth];
+                final int cursor = cursors[depth]++;
+                final int literal = literalPosition(state);
+                char character = 0;
+                Node child = null;
+
+                if (literal >= 0) {
+                    if (0 == cursor) {
+                        character = pattern.getLiteral(literal);
+                        child = node.getChild(character);
+                    }
+                } else if (cursor < node.getChildCount()) {
+                    character = node.getChildKey(cursor);
+                    child = node.getChildAt(cursor);
+                }
+
+                if (null == child) {
+                    depth--;
+                    continue;
+                }
+
+                final long nextState = prune(child, step(state, character));
+
+                if (0 == nextState) {
+                    continue;
+                }
+
+                path.setLength(depth);
+                path.append(character);
+                push(child, nextState);
+
+                // A node is yielded on the way down, before any of the
+                // longer words below it.
+                if (0 != (nextState & accepting) && child.isCompleteWord()) {
+                    return child;
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        String currentWord() {
+            return path.toString();
+        }
+
+        /**
+         * Pushes a frame for a node onto the stack, growing it if need
+         * be; a glob can match paths longer than the pattern.
+         *
+         * @param node the node reached
+         * @param state the pattern positions reachable at {@code node}
+         */
+        private void push(final Node node, final long state) {
+            depth++;
+
+            if (nodes.length == depth) {
+                nodes = Arrays.copyOf(nodes, depth * 2);
+                states = Arrays.copyOf(states, depth * 2);
+                cursors = Arrays.copyOf(cursors, depth * 2);
+            }
+
+            nodes[depth] = node;
+            states[depth] = state;
+            cursors[depth] = 0;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.function.ObjLongConsumer;
+
+/**
+ * LongWildcardTrieMap is a {@link WildcardTrie} which maps each of its
+ * words to a {@code long}, such as a count or an id.
+ *
+ * It is the primitive counterpart of {@link WildcardTrieMap}: values
+ * are held unboxed on the nodes at which their words end, and handed
+ * to callers unboxed. Words added with {@link #addWord(String)} are
+ * keys which map to zero.
+ */
+public class LongWildcardTrieMap extends WildcardTrie {
+
+    /**
+     * Constructs a new LongWildcardTrieMap.
+     *
+     * @param wildcard the character to use as a single-character glob;
+     *                 may be null
+     * @param glob the character to use as a zero-or-more character
+     *             glob; may be null
+     * @param classes whether to take {@code [} to open a character
+     *                class, and so reserve it
+     */
+    public LongWildcardTrieMap(
+            final Character wildcard,
+            final Character glob,
+            final boolean classes) {
+
+        super(wildcard, glob, classes);
+    }
+
+    /**
+     * Constructs a new LongWildcardTrieMap, without character classes.
+     *
+     * @param wildcard the character to use as a single-character glob;
+     *                 may be null
+     * @param glob the character to use as a zero-or-more character
+     *             glob; may be null
+     */
+    public LongWildcardTrieMap(final Character wildcard, final Character glob) {
+        super(wildcard, glob);
+    }
+
+    /**
+     * Constructs a new LongWildcardTrieMap, without a glob or
+     * character classes.
+     *
+     * @param wildcard the character to use as a single-character glob
+     */
+    public LongWildcardTrieMap(final Character wildcard) {
+        super(wildcard);
+    }
+
+    /**
+     * Constructs a new LongWildcardTrieMap, using the default wildcard
+     * character, without a glob or character classes.
+     */
+    public LongWildcardTrieMap() {
+        super();
+    }
+
+    /**
+     * Maps a word to a value, adding the word if need be.
+     *
+     * @param key the word. Must be non-empty and may not contain a
+     *            wildcard or glob character.
+     * @param value the value to map the word to
+     *
+     * @throws RuntimeException
+     *         if the provided {@code key} cannot be added
+     */
+    public void put(final String key, final long value) {
+        ((LongNode) insertWord(key, 0L)).value = value;
+    }
+
+    /**
+     * Adds to the value a word maps to, adding the word, with a value
+     * of zero, if need be.
+     *
+     * @param key the word. Must be non-empty and may not contain a
+     *            wildcard or glob character.
+     * @param increment the amount to add to the value
+     *
+     * @return the new value of the word
+     *
+     * @throws RuntimeException
+     *         if the provided {@code key} cannot be added
+     */
+    public long addTo(final String key, final long increment) {
+        final LongNode node = (LongNode) insertWord(key, 0L);
+
+        node.value += increment;
+
+        return node.value;
+    }
+
+    /**
+     * Gets the value a word maps to. Every character of the word is
+     * taken literally.
+     *
+     * @param key the word to look up
+     * @param defaultValue the value to return if the word is not a key
+     *
+     * @return the value of the word, or {@code defaultValue} if the
+     *         word is not a key
+     */
+    public long getOrDefault(final String key, final long defaultValue) {
+        final Node node = findNode(key);
+
+        return null != node && node.isCompleteWord()
+            ? ((LongNode) node).value
+            : defaultValue;
+    }
+
+    /**
+     * Checks whether a word is a key. Every character of the word is
+     * taken literally.
+     *
+     * @param key the word to look up
+     *
+     * @return true if the word is a key; false, otherwise
+     */
+    public boolean containsKey(final String key) {
+        final Node node = findNode(key);
+
+        return null != node && node.isCompleteWord();
+    }
+
+    /**
+     * Removes a word and its value, unlinking the nodes which led only
+     * to it, as {@link #removeWord(String)} does.
+     *
+     * @param key the word to remove
+     *
+     * @return true if the word was a key; false, otherwise
+     */
+    public boolean remove(final String key) {
+        final Node node = findNode(key);
+
+        if (null == node || !node.isCompleteWord()) {
+            return false;
+        }
+
+        return removeWord(key);
+    }
+
+    /**
+     * Hands each word that matches the given search term, with its
+     * value, to an action, in ascending order of word.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     * @param action receives each matching word and its value
+     */
+    public void forEachMatchingEntry(
+            final String searchTerm,
+            final ObjLongConsumer<String> action) {
+
+        forEachMatch(
+            searchTerm,
+            (word, node) -> action.accept(word, ((LongNode) node).value)
+        );
+    }
+
+    @Override
+    Node newNode(final char character) {
+        return new LongNode(character);
+    }
+
+    @Override
+    void clearNode(final Node node) {
+        ((LongNode) node).value = 0;
+    }
+
+    /**
+     * A node which holds the value of the word it completes.
+     */
+    private static final class LongNode extends Node {
+        private long value;
+
+        /**
+         * Construct a new LongNode corresponding to a given character.
+         *
+         * @param character the character this node represents
+         */
+        LongNode(final char character) {
+            super(character);
+        }
+    }
+}
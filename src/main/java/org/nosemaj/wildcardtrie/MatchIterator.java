@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+/**
+ * Lazily walks a Trie, yielding the complete words that match a search
+ * term one at a time.
+ *
+ * The walk is driven by an explicit stack with one frame per character
+ * of the search term, so the memory held by the iterator does not
+ * depend on how many words match. Children are visited in ascending
+ * character order, so matches are yielded in ascending order too.
+ */
+class MatchIterator extends AbstractMatchIterator {
+    private final SearchPattern pattern;
+    private final char[] path;
+    private final Node[] nodes;
+    private final int[] cursors;
+
+    private int depth;
+
+    /**
+     * Constructs a new MatchIterator.
+     *
+     * @param root the node at which to start the walk
+     * @param pattern the compiled search term, which must not contain
+     *                a glob
+     */
+    MatchIterator(final Node root, final SearchPattern pattern) {
+        final int length = pattern.length();
+
+        this.pattern = pattern;
+        this.path = new char[length];
+        this.nodes = new Node[length + 1];
+        this.cursors = new int[length + 1];
+
+        this.nodes[0] = root;
+        this.depth = pattern.canMatchBelow(root, 0) ? 0 : -1;
+        findNext();
+    }
+
+    @Override
+    Node advance() {
+        while (depth >= 0) {
+            final Node node = nodes[depth];
+
+            // The whole search term has been consumed; this node is a
+            // match if it ends a word. Either way, back up.
+            if (pattern.length() == depth) {
+                depth--;
+
+                if (node.isCompleteWord()) {
+                    return node;
+                }
+
+                continue;
+            }
+
+            // Each frame's cursor counts the children it has visited: a
+            // literal has at most one to visit, a wildcard has them all.
+            final int cursor = cursors[depth]++;
+            char character;
+            Node child = null;
+
+            if (pattern.isLiteral(depth)) {
+                character = pattern.getLiteral(depth);
+
+                if (0 == cursor) {
+                    child = node.getChild(character);
+                }
+            } else if (cursor < node.getChildCount()) {
+                character = node.getChildKey(cursor);
+                child = node.getChildAt(cursor);
+            } else {
+                character = 0;
+            }
+
+            if (null == child) {
+                depth--;
+                continue;
+            }
+
+            // Skip the child if it can't match, or holds no word of the
+            // right length.
+            if (!pattern.matches(depth, character)
+                    || !pattern.canMatchBelow(child, depth + 1)) {
+                continue;
+            }
+
+            path[depth] = character;
+            depth++;
+            nodes[depth] = child;
+            cursors[depth] = 0;
+        }
+
+        return null;
+    }
+
+    @Override
+    String currentWord() {
+        return new String(path);
+    }
+}
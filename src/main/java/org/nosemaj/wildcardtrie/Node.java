@@ -16,22 +16,57 @@
 
 package org.nosemaj.wildcardtrie;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * A node in the Trie.
+ *
+ * The children of a node are held in a pair of parallel arrays, sorted
+ * by character: one of the characters themselves, and one of the nodes
+ * that represent them. Children are found by binary search over the
+ * characters, so no lookup boxes a character or hashes it, and a
+ * node's children are always visited in ascending character order.
+ *
+ * A node also records the lengths of the suffixes which complete a word
+ * below it, as a bitmask: bit {@code n} is set if some word ends
+ * exactly {@code n} characters further down. Lengths of 63 or more all
+ * share the top bit. A search can then skip any subtree which holds no
+ * word of the length it is looking for.
+ *
+ * Finally, a node records the weight of the word it completes, if any,
+ * and the greatest weight of any word at or below it, so that a ranked
+ * search can visit the most promising subtrees first; and the number of
+ * words at or below it, so that a parallel search can tell a subtree
+ * worth a task of its own from one which is not.
  */
 public class Node {
-    private Character character;
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int LONGEST_SUFFIX = Long.SIZE - 1;
+
+    private final char character;
+    private final boolean root;
     private boolean completeWord;
-    private Map<Character, Node> children;
+    private char[] keys;
+    private Node[] children;
+    private int childCount;
+    private int wordCount;
+    private long suffixLengths;
+    private long weight;
+    private long maxWeight;
 
     /**
-     * Constructs a new Node.
+     * Constructs a new Node, to be the root of a trie, which represents
+     * no character.
      */
     public Node() {
-        this(null);
+        this('\0', true);
     }
 
     /**
@@ -39,29 +74,221 @@ public class Node {
      *
      * @param character the character this Node represents
      */
-    public Node(final Character character) {
+    public Node(final char character) {
+        this(character, false);
+    }
+
+    /**
+     * Constructs a new Node.
+     *
+     * @param character the character this Node represents, if it is
+     *                  not a root
+     * @param root whether this Node is a root, which represents no
+     *             character
+     */
+    private Node(final char character, final boolean root) {
         this.character = character;
+        this.root = root;
         this.completeWord = false;
-        this.children = new HashMap<>();
+        this.keys = NO_KEYS;
+        this.children = NO_CHILDREN;
+        this.childCount = 0;
+        this.wordCount = 0;
+        this.suffixLengths = 0L;
+        this.weight = 0L;
+        this.maxWeight = 0L;
+    }
+
+    /**
+     * Makes a shallow copy of this node: the copy has the same
+     * character, word, word count, suffix lengths and weights, and the
+     * same children, but arrays of its own to hold them, so that
+     * children may be added to or removed from either node without
+     * affecting the other.
+     *
+     * @return a copy of this node, sharing its children
+     */
+    public Node copy() {
+        final Node copy = new Node(character, root);
+
+        copy.completeWord = completeWord;
+        copy.keys = Arrays.copyOf(keys, keys.length);
+        copy.children = Arrays.copyOf(children, children.length);
+        copy.childCount = childCount;
+        copy.wordCount = wordCount;
+        copy.suffixLengths = suffixLengths;
+        copy.weight = weight;
+        copy.maxWeight = maxWeight;
+
+        return copy;
     }
 
     /**
      * Gets the children of this node.
      *
+     * The map is a view: it reads and writes through to this node, and
+     * removing a key from it, or from any of its collections, removes
+     * that child as {@link #removeChild(char)} would.
+     * Callers which walk the trie should prefer {@link #getChild(char)}
+     * and the indexed accessors, which do not box characters.
+     *
      * @return the key-value map of next characters to the nodes that
      *         represent them
      */
     public Map<Character, Node> getChildren() {
-        return children;
+        return new ChildMap();
+    }
+
+    /**
+     * Gets the child which represents a given character.
+     *
+     * @param key the character to look up
+     *
+     * @return the child for {@code key}, or null if there is none
+     */
+    public Node getChild(final char key) {
+        final int index = indexOf(key);
+
+        return index >= 0 ? children[index] : null;
+    }
+
+    /**
+     * Sets the child which represents a given character, replacing any
+     * existing child for that character.
+     *
+     * @param key the character the child represents
+     * @param child the child node
+     *
+     * @return the child previously held for {@code key}, or null if
+     *         there was none
+     */
+    public Node putChild(final char key, final Node child) {
+        int index = indexOf(key);
+
+        if (index >= 0) {
+            final Node previous = children[index];
+            children[index] = child;
+            return previous;
+        }
+
+        index = -(index + 1);
+
+        if (childCount == keys.length) {
+            final int capacity = 0 == childCount ? 1 : childCount * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            children = Arrays.copyOf(children, capacity);
+        }
+
+        System.arraycopy(keys, index, keys, index + 1, childCount - index);
+        System.arraycopy(
+            children, index, children, index + 1, childCount - index
+        );
+
+        keys[index] = key;
+        children[index] = child;
+        childCount++;
+
+        return null;
+    }
+
+    /**
+     * Removes the child which represents a given character. Once no
+     * more than a quarter of the arrays holding the children is used,
+     * they are shrunk, so that a node which loses most of its children
+     * does not go on holding the memory for them.
+     *
+     * @param key the character the child represents
+     *
+     * @return the child removed for {@code key}, or null if there was
+     *         none
+     */
+    public Node removeChild(final char key) {
+        final int index = indexOf(key);
+
+        if (index < 0) {
+            return null;
+        }
+
+        final Node previous = children[index];
+
+        System.arraycopy(
+            keys, index + 1, keys, index, childCount - index - 1
+        );
+        System.arraycopy(
+            children, index + 1, children, index, childCount - index - 1
+        );
+
+        childCount--;
+        children[childCount] = null;
+
+        if (0 == childCount) {
+            keys = NO_KEYS;
+            children = NO_CHILDREN;
+        } else if (childCount <= keys.length / 4) {
+            keys = Arrays.copyOf(keys, childCount * 2);
+            children = Arrays.copyOf(children, childCount * 2);
+        }
+
+        return previous;
+    }
+
+    /**
+     * Shrinks the arrays holding the children of this node to fit them
+     * exactly, for a node which is expected to gain no more children.
+     */
+    public void trimChildren() {
+        if (0 == childCount) {
+            keys = NO_KEYS;
+            children = NO_CHILDREN;
+        } else if (childCount < keys.length) {
+            keys = Arrays.copyOf(keys, childCount);
+            children = Arrays.copyOf(children, childCount);
+        }
+    }
+
+    /**
+     * Gets the number of children of this node.
+     *
+     * @return the number of children of this node
+     */
+    public int getChildCount() {
+        return childCount;
+    }
+
+    /**
+     * Gets the character of the child at a given position. Children
+     * are ordered by ascending character.
+     *
+     * @param index the position of the child, in {@code [0,
+     *              getChildCount())}
+     *
+     * @return the character of the child at {@code index}
+     */
+    public char getChildKey(final int index) {
+        return keys[index];
+    }
+
+    /**
+     * Gets the child at a given position. Children are ordered by
+     * ascending character.
+     *
+     * @param index the position of the child, in {@code [0,
+     *              getChildCount())}
+     *
+     * @return the child at {@code index}
+     */
+    public Node getChildAt(final int index) {
+        return children[index];
     }
 
     /**
      * Gets the character that the node represents.
      *
-     * @return the character that the node represents
+     * @return the character that the node represents, or null if it is
+     *         a root
      */
     public Character getCharacter() {
-        return character;
+        return root ? null : character;
     }
 
     /**
@@ -72,6 +299,10 @@ public class Node {
      */
     public void setCompleteWord(final boolean completeWord) {
         this.completeWord = completeWord;
+
+        if (completeWord) {
+            addSuffixLength(0);
+        }
     }
 
     /**
@@ -84,6 +315,190 @@ public class Node {
         return completeWord;
     }
 
+    /**
+     * Records that a word ends a given number of characters below this
+     * node.
+     *
+     * @param length the number of characters from this node to the end
+     *               of the word
+     */
+    public void addSuffixLength(final int length) {
+        suffixLengths |= 1L << Math.min(length, LONGEST_SUFFIX);
+    }
+
+    /**
+     * Checks whether a word may end exactly a given number of
+     * characters below this node. May be true for lengths of 63 or
+     * more when no word of that exact length exists.
+     *
+     * @param length the number of characters from this node
+     *
+     * @return false if no word ends exactly {@code length} characters
+     *         below this node; true, otherwise
+     */
+    public boolean hasSuffixOfLength(final int length) {
+        return 0 != (suffixLengths & (1L << Math.min(length, LONGEST_SUFFIX)));
+    }
+
+    /**
+     * Checks whether a word may end more than a given number of
+     * characters below this node.
+     *
+     * @param length the number of characters from this node
+     *
+     * @return false if no word ends more than {@code length} characters
+     *         below this node; true, otherwise
+     */
+    public boolean hasSuffixLongerThan(final int length) {
+        return length < LONGEST_SUFFIX
+            ? 0 != (suffixLengths >>> (length + 1))
+            : hasSuffixOfLength(LONGEST_SUFFIX);
+    }
+
+    /**
+     * Works out the lengths of the suffixes below this node again, from
+     * this node's own word and its children's suffix lengths, after a
+     * word has been removed.
+     *
+     * @return true if the suffix lengths changed; false, otherwise
+     */
+    public boolean recomputeSuffixLengths() {
+        final long top = 1L << LONGEST_SUFFIX;
+        long lengths = completeWord ? 1L : 0L;
+
+        // A child's suffixes are one character longer from here; those
+        // which already share the top bit stay there.
+        for (int index = 0; index < childCount; index++) {
+            final long childLengths = children[index].suffixLengths;
+            lengths |= (childLengths << 1) | (childLengths & top);
+        }
+
+        final boolean changed = lengths != suffixLengths;
+        suffixLengths = lengths;
+
+        return changed;
+    }
+
+    /**
+     * Gets the number of complete words at or below this node, this
+     * node's own word included.
+     *
+     * @return the number of words in this subtree
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Records that words have been added at or below this node or,
+     * for a negative change, removed. Only this node is changed: the
+     * counts of the nodes above it must be brought up to date by the
+     * caller.
+     *
+     * @param change the number of words added
+     */
+    public void addToWordCount(final int change) {
+        wordCount += change;
+    }
+
+    /**
+     * Works out the number of words at or below this node again, from
+     * this node's own word and its children's counts.
+     *
+     * @return true if the count changed; false, otherwise
+     */
+    public boolean recomputeWordCount() {
+        int count = completeWord ? 1 : 0;
+
+        for (int index = 0; index < childCount; index++) {
+            count += children[index].wordCount;
+        }
+
+        final boolean changed = count != wordCount;
+        wordCount = count;
+
+        return changed;
+    }
+
+    /**
+     * Gets the weight of the word this node completes.
+     *
+     * @return the weight of the word; zero, if none was given
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Sets the weight of the word this node completes. Only this node
+     * is changed: the greatest weights recorded by the nodes above it
+     * must be brought up to date by the caller.
+     *
+     * @param weight the weight of the word; not negative
+     */
+    public void setWeight(final long weight) {
+        this.weight = weight;
+        this.maxWeight = Math.max(maxWeight, weight);
+    }
+
+    /**
+     * Gets the greatest weight of any word at or below this node.
+     *
+     * @return the greatest weight in this subtree; zero, if there is
+     *         none
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Records that a word of a given weight is at or below this node.
+     *
+     * @param weight the weight of the word
+     */
+    public void raiseMaxWeight(final long weight) {
+        maxWeight = Math.max(maxWeight, weight);
+    }
+
+    /**
+     * Works out the greatest weight at or below this node again, from
+     * this node's own word and its children's greatest weights, after
+     * a weight has been lowered.
+     *
+     * @return true if the greatest weight changed; false, otherwise
+     */
+    public boolean recomputeMaxWeight() {
+        long max = completeWord ? weight : 0L;
+
+        for (int index = 0; index < childCount; index++) {
+            max = Math.max(max, children[index].maxWeight);
+        }
+
+        final boolean changed = max != maxWeight;
+        maxWeight = max;
+
+        return changed;
+    }
+
+    /**
+     * Checks whether a word may end within a given number of characters
+     * below this node, this node itself included.
+     *
+     * @param length the number of characters from this node
+     *
+     * @return false if no word ends {@code length} or fewer characters
+     *         below this node; true, otherwise
+     */
+    public boolean hasSuffixNoLongerThan(final int length) {
+        if (length < 0) {
+            return false;
+        }
+
+        return length < LONGEST_SUFFIX
+            ? 0 != (suffixLengths & ((2L << length) - 1))
+            : 0 != suffixLengths;
+    }
+
     /**
      * Gets a string representation of this node.
      *
@@ -93,16 +508,115 @@ public class Node {
         StringBuilder builder = new StringBuilder();
 
         builder.append("[");
-        builder.append(character);
+        builder.append(getCharacter());
         builder.append(" ->");
         
-        for (final Character key : children.keySet()) {
-            builder.append(" " + key);
+        for (int index = 0; index < childCount; index++) {
+            builder.append(" " + keys[index]);
         }
 
         builder.append("]");
 
         return builder.toString();
     }
-}
 
+    /**
+     * Finds the position of a child's character.
+     *
+     * @param key the character to look up
+     *
+     * @return the position of {@code key}, if present; otherwise,
+     *         {@code (-(insertion point) - 1)}
+     */
+    private int indexOf(final char key) {
+        // Words are mostly added in order, so check the end first.
+        if (0 == childCount || keys[childCount - 1] < key) {
+            return -(childCount + 1);
+        }
+
+        return Arrays.binarySearch(keys, 0, childCount, key);
+    }
+
+    /**
+     * A map view of the children of this node.
+     */
+    private class ChildMap extends AbstractMap<Character, Node> {
+        @Override
+        public int size() {
+            return childCount;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return key instanceof Character
+                && indexOf((Character) key) >= 0;
+        }
+
+        @Override
+        public Node get(final Object key) {
+            return key instanceof Character
+                ? getChild((Character) key)
+                : null;
+        }
+
+        @Override
+        public Node put(final Character key, final Node child) {
+            return putChild(key, child);
+        }
+
+        @Override
+        public Node remove(final Object key) {
+            return key instanceof Character
+                ? removeChild((Character) key)
+                : null;
+        }
+
+        @Override
+        public Set<Map.Entry<Character, Node>> entrySet() {
+            return new AbstractSet<Map.Entry<Character, Node>>() {
+                @Override
+                public int size() {
+                    return childCount;
+                }
+
+                @Override
+                public Iterator<Map.Entry<Character, Node>> iterator() {
+                    return new Iterator<Map.Entry<Character, Node>>() {
+                        private int index = 0;
+                        private int last = -1;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < childCount;
+                        }
+
+                        @Override
+                        public Map.Entry<Character, Node> next() {
+                            if (index >= childCount) {
+                                throw new NoSuchElementException();
+                            }
+
+                            last = index++;
+
+                            return new AbstractMap.SimpleImmutableEntry<>(
+                                keys[last],
+                                children[last]
+                            );
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (last < 0) {
+                                throw new IllegalStateException();
+                            }
+
+                            removeChild(keys[last]);
+                            index = last;
+                            last = -1;
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Collects the words matching a search pattern without a glob, as a
+ * fork/join task.
+ *
+ * Each position of the pattern which may match more than one character
+ * fans out into one subtask per matching child, so that independent
+ * subtrees are walked by different threads. A node with fewer than
+ * {@link #MIN_FORK_WORDS} words at or below it has a subtree too small
+ * to be worth splitting into tasks of its own, and is walked
+ * sequentially by the task which reached it; so a large subtree is
+ * split however deep it lies, and a small one is not split however
+ * shallow. The count is of every word below the node, matching or not,
+ * and so bounds the work of walking it. A task also stops forking once
+ * its thread has more than {@link #MAX_SURPLUS} queued tasks beyond
+ * those idle threads are likely to steal: every thread is busy by
+ * then, and more tasks would only add overhead.
+ * Each task collects its matches into a list of its own, and a task
+ * joins the lists of its subtasks into one.
+ */
+final class ParallelSearch extends RecursiveTask<List<String>> {
+    /**
+     * The fewest words a subtree must hold to be split into tasks.
+     */
+    static final int MIN_FORK_WORDS = 1024;
+
+    /**
+     * The most surplus queued tasks a thread may have and still fork.
+     */
+    static final int MAX_SURPLUS = 3;
+
+    private static final long serialVersionUID = 1L;
+
+    private final WildcardTrie trie;
+    private final Node node;
+    private final SearchPattern pattern;
+    private final char[] path;
+    private final int index;
+
+    /**
+     * Constructs a new ParallelSearch of a whole trie.
+     *
+     * @param trie the trie to search
+     * @param root the root of the trie
+     * @param pattern the compiled search term, which must not contain
+     *                a glob
+     */
+    ParallelSearch(
+            final WildcardTrie trie,
+            final Node root,
+            final SearchPattern pattern) {
+
+        this(trie, root, pattern, new char[pattern.length()], 0);
+    }
+
+    /**
+     * Constructs a new ParallelSearch of a subtree.
+     *
+     * @param trie the trie to search
+     * @param node the node at which to start the search
+     * @param pattern the compiled search term, which must not contain
+     *                a glob
+     * @param path the characters walked so far, in {@code [0, index)};
+     *             owned by this task
+     * @param index the index into {@code pattern} of {@code node}
+     */
+    private ParallelSearch(
+            final WildcardTrie trie,
+            final Node node,
+            final SearchPattern pattern,
+            final char[] path,
+            final int index) {
+
+        this.trie = trie;
+        this.node = node;
+        this.pattern = pattern;
+        this.path = path;
+        this.index = index;
+    }
+
+    @Override
+    protected List<String> compute() {
+        Node current = node;
+        int position = index;
+
+        // Follow the literals, which have only one child to visit, down
+        // to the next position that fans out.
+        while (position < pattern.length() && pattern.isLiteral(position)
+                && pattern.canMatchBelow(current, position)) {
+
+            final char character = pattern.getLiteral(position);
+            current = current.getChild(character);
+
+            if (null == current) {
+                return Collections.emptyList();
+            }
+
+            path[position++] = character;
+        }
+
+        if (!pattern.canMatchBelow(current, position)) {
+            return Collections.emptyList();
+        }
+
+        if (current.getWordCount() < MIN_FORK_WORDS
+                || pattern.length() == position
+                || getSurplusQueuedTaskCount() > MAX_SURPLUS) {
+            final List<String> matchingWords = new ArrayList<>();
+
+            trie.collectMatchingWords(
+                current, pattern, path, position, matchingWords
+            );
+
+            return matchingWords;
+        }
+
+        final List<ParallelSearch> subtasks = new ArrayList<>();
+
+        for (int child = 0; child < current.getChildCount(); child++) {
+            final char character = current.getChildKey(child);
+
+            if (pattern.matches(position, character)) {
+                final char[] childPath = path.clone();
+                childPath[position] = character;
+
+                subtasks.add(new ParallelSearch(
+                    trie,
+                    current.getChildAt(child),
+                    pattern,
+                    childPath,
+                    position + 1
+                ));
+            }
+        }
+
+        final List<String> matchingWords = new ArrayList<>();
+
+        for (final ParallelSearch subtask : invokeAll(subtasks)) {
+            matchingWords.addAll(subtask.join());
+        }
+
+        return matchingWords;
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * PermutermWildcardTrie indexes every rotation of every word, so that
+ * any search term can be turned around to start with its longest run
+ * of literals.
+ *
+ * Each word is stored with a terminator appended, in all of its
+ * rotations: "pot" is stored as {@code pot$}, {@code ot$p}, {@code
+ * t$po} and {@code $pot}, where {@code $} stands for the terminator. A
+ * search term is given the same treatment. A term like {@code pot*to},
+ * whose literals are split by a wildcard in the middle, becomes {@code
+ * to$pot*}, which can be walked literal by literal until its very last
+ * character. Every word has exactly one rotation that puts its
+ * terminator where the term's is, so each matching word is found once.
+ *
+ * The index holds about as many rotations as there are characters in
+ * all of its words. Past the first few characters, most rotations run
+ * on alone to their end, so they are kept in a path-compressed {@link
+ * RadixTrie}; even so, the index costs a few times the memory of a
+ * plain {@link WildcardTrie}.
+ */
+public class PermutermWildcardTrie {
+    /**
+     * Marks the end of a word within each of its rotations. Words may
+     * not contain it.
+     */
+    public static final char TERMINATOR = '\u0000';
+
+    private final Character wildcard;
+    private final RadixTrie rotations;
+
+    /**
+     * Constructs a new PermutermWildcardTrie.
+     *
+     * @param wildcard the character to use as a single-character glob
+     */
+    public PermutermWildcardTrie(final Character wildcard) {
+        this.wildcard = wildcard;
+        this.rotations = new RadixTrie(wildcard);
+    }
+
+    /**
+     * Constructs a new PermutermWildcardTrie, using the default
+     * wildcard character.
+     */
+    public PermutermWildcardTrie() {
+        this(Words.DEFAULT_WILDCARD);
+    }
+
+    /**
+     * Adds a set of words to the index.
+     *
+     * @param words the words to add to the index. Each word must be
+     *              non-empty and may contain neither a wildcard
+     *              character nor the terminator.
+     *
+     * @throws RuntimeException
+     *         if any of the provided words cannot be added
+     */
+    public void addWords(final Set<String> words) {
+        if (null != words) {
+            words.forEach(word -> addWord(word));
+        }
+    }
+
+    /**
+     * Adds every rotation of a word to the index.
+     *
+     * @param word the word to add to the index. Must be non-empty and
+     *             may contain neither a wildcard character nor the
+     *             terminator.
+     *
+     * @throws RuntimeException
+     *         if the provided {@code word} cannot be added
+     */
+    public void addWord(final String word) {
+        if (null == word || word.isEmpty()
+                || word.indexOf(TERMINATOR) >= 0) {
+
+            throw new RuntimeException(
+                "Passed invalid word (" + word + ") to addWord()."
+            );
+        }
+
+        final String terminated = word + TERMINATOR;
+
+        for (int start = 0; start < terminated.length(); start++) {
+            rotations.addWord(rotate(terminated, start));
+        }
+    }
+
+    /**
+     * Checks if the specified search expression (including zero or more
+     * wildcard characters) matches one or more complete words.
+     *
+     * @param searchExpression the search expression to evaluate as
+     *                         potentially mapped to one or more
+     *                         complete words.
+     *
+     * @return true if there is at least one complete, matching word;
+     *         false, otherwise.
+     */
+    public boolean isWord(final String searchExpression) {
+        return isValid(searchExpression)
+            && rotations.isWord(rotateSearchTerm(searchExpression));
+    }
+
+    /**
+     * Gets the set of complete words that match the given search term.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard characters
+     *
+     * @return the set of complete words which match the search term;
+     *         may be empty, if none match.
+     */
+    public Set<String> getMatchingWords(final String searchTerm) {
+        final Set<String> matchingWords = new HashSet<>();
+
+        if (!isValid(searchTerm)) {
+            return matchingWords;
+        }
+
+        for (final String rotation
+                : rotations.getMatchingWords(rotateSearchTerm(searchTerm))) {
+            matchingWords.add(unrotate(rotation));
+        }
+
+        return matchingWords;
+    }
+
+    /**
+     * Counts the complete words that match the given search term,
+     * without building the words themselves.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard characters
+     *
+     * @return the number of complete words which match the search
+     *         term; zero, if none match.
+     */
+    public int countMatchingWords(final String searchTerm) {
+        return isValid(searchTerm)
+            ? rotations.countMatchingWords(rotateSearchTerm(searchTerm))
+            : 0;
+    }
+
+    /**
+     * Gets the number of nodes in the index, including its root.
+     *
+     * @return the number of nodes in the index
+     */
+    public int getNodeCount() {
+        return rotations.getNodeCount();
+    }
+
+    /**
+     * Rotates a search term, with the terminator appended, to start at
+     * its longest run of literals. Runs wrap around, so the literals at
+     * the end of the term, the terminator, and the literals at its
+     * start form one run.
+     *
+     * @param searchTerm the term to lookup
+     *
+     * @return the rotated search term
+     */
+    String rotateSearchTerm(final String searchTerm) {
+        final String terminated = searchTerm + TERMINATOR;
+        final int length = terminated.length();
+
+        if (null == wildcard || searchTerm.indexOf(wildcard) < 0) {
+            return terminated;
+        }
+
+        int bestStart = 0;
+        int bestLength = -1;
+
+        // Every run starts just after a wildcard, and stops at one.
+        for (int start = 0; start < length; start++) {
+            final int previous = (start + length - 1) % length;
+
+            if (isWildcard(terminated.charAt(start))
+                    || !isWildcard(terminated.charAt(previous))) {
+                continue;
+            }
+
+            int run = 0;
+
+            while (!isWildcard(terminated.charAt((start + run) % length))) {
+                run++;
+            }
+
+            if (run > bestLength) {
+                bestStart = start;
+                bestLength = run;
+            }
+        }
+
+        return rotate(terminated, bestStart);
+    }
+
+    /**
+     * Turns a rotation back into the word it was made from.
+     *
+     * @param rotation a rotation of a word with the terminator
+     *                 appended
+     *
+     * @return the word
+     */
+    private static String unrotate(final String rotation) {
+        final int terminator = rotation.indexOf(TERMINATOR);
+
+        return rotation.substring(terminator + 1)
+            + rotation.substring(0, terminator);
+    }
+
+    /**
+     * Rotates a string to start at a given position.
+     *
+     * @param string the string to rotate
+     * @param start the position of {@code string} to start at
+     *
+     * @return the rotated string
+     */
+    private static String rotate(final String string, final int start) {
+        return string.substring(start) + string.substring(0, start);
+    }
+
+    /**
+     * Checks whether a search term can be looked up at all.
+     *
+     * @param searchTerm the term to lookup
+     *
+     * @return true if the term is non-empty and free of the
+     *         terminator; false, otherwise
+     */
+    private static boolean isValid(final String searchTerm) {
+        return null != searchTerm && !searchTerm.isEmpty()
+            && searchTerm.indexOf(TERMINATOR) < 0;
+    }
+
+    /**
+     * Checks whether a character of a search term is the wildcard.
+     *
+     * @param character the character to check
+     *
+     * @return true if {@code character} is the wildcard; false,
+     *         otherwise
+     */
+    private boolean isWildcard(final char character) {
+        return null != wildcard && wildcard == character;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.Arrays;
+
+/**
+ * A node in a path-compressed Trie.
+ *
+ * Where a {@link Node} represents a single character, a RadixNode
+ * represents the run of characters (its label) on the edge from its
+ * parent, so that a chain of nodes with one child each is held as one
+ * node. The labels of the children of a node all start with different
+ * characters; children are kept sorted by that first character.
+ */
+class RadixNode {
+    private static final char[] NO_KEYS = new char[0];
+    private static final RadixNode[] NO_CHILDREN = new RadixNode[0];
+
+    private char[] label;
+    private boolean completeWord;
+    private char[] keys;
+    private RadixNode[] children;
+    private int childCount;
+
+    /**
+     * Constructs a new RadixNode.
+     *
+     * @param label the characters on the edge leading to this node
+     */
+    RadixNode(final char[] label) {
+        this.label = label;
+        this.completeWord = false;
+        this.keys = NO_KEYS;
+        this.children = NO_CHILDREN;
+        this.childCount = 0;
+    }
+
+    /**
+     * Gets the characters on the edge leading to this node.
+     *
+     * @return the label of this node
+     */
+    char[] getLabel() {
+        return label;
+    }
+
+    /**
+     * Sets the characters on the edge leading to this node. The first
+     * character may only change while the node is detached from its
+     * parent.
+     *
+     * @param label the label of this node
+     */
+    void setLabel(final char[] label) {
+        this.label = label;
+    }
+
+    /**
+     * Gets the child whose label starts with a given character.
+     *
+     * @param key the first character of the child's label
+     *
+     * @return the child for {@code key}, or null if there is none
+     */
+    RadixNode getChild(final char key) {
+        final int index = indexOf(key);
+
+        return index >= 0 ? children[index] : null;
+    }
+
+    /**
+     * Sets the child whose label starts with the first character of
+     * {@code child}'s label, replacing any existing child for it.
+     *
+     * @param child the child node
+     */
+    void putChild(final RadixNode child) {
+        final char key = child.label[0];
+        int index = indexOf(key);
+
+        if (index >= 0) {
+            children[index] = child;
+            return;
+        }
+
+        index = -(index + 1);
+
+        if (childCount == keys.length) {
+            final int capacity = 0 == childCount ? 1 : childCount * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            children = Arrays.copyOf(children, capacity);
+        }
+
+        System.arraycopy(keys, index, keys, index + 1, childCount - index);
+        System.arraycopy(
+            children, index, children, index + 1, childCount - index
+        );
+
+        keys[index] = key;
+        children[index] = child;
+        childCount++;
+    }
+
+    /**
+     * Gets the number of children of this node.
+     *
+     * @return the number of children of this node
+     */
+    int getChildCount() {
+        return childCount;
+    }
+
+    /**
+     * Gets the child at a given position. Children are ordered by the
+     * ascending first character of their labels.
+     *
+     * @param index the position of the child, in {@code [0,
+     *              getChildCount())}
+     *
+     * @return the child at {@code index}
+     */
+    RadixNode getChildAt(final int index) {
+        return children[index];
+    }
+
+    /**
+     * Sets this node to represent the end of a complete word.
+     *
+     * @param completeWord whether or not this node delimits a complete
+     *                     word.
+     */
+    void setCompleteWord(final boolean completeWord) {
+        this.completeWord = completeWord;
+    }
+
+    /**
+     * Checks whether or not this node delimits a complete word.
+     *
+     * @return true if this node delimits a complete word; false,
+     *         otherwise
+     */
+    boolean isCompleteWord() {
+        return completeWord;
+    }
+
+    /**
+     * Finds the position of the child for a given first character.
+     *
+     * @param key the character to look up
+     *
+     * @return the position of {@code key}, if present; otherwise,
+     *         {@code (-(insertion point) - 1)}
+     */
+    private int indexOf(final char key) {
+        if (0 == childCount || keys[childCount - 1] < key) {
+            return -(childCount + 1);
+        }
+
+        return Arrays.binarySearch(keys, 0, childCount, key);
+    }
+}
@@ -0,0 +1,509 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * RadixTrie is a path-compressed (PATRICIA) variant of {@link
+ * WildcardTrie}, which supports the wildcard only: there is no glob,
+ * and {@code [} is a literal rather than the start of a character
+ * class.
+ *
+ * Chains of single-child nodes are collapsed into one node, whose edge
+ * carries the whole run of characters, so there are far fewer nodes to
+ * hop through on any lookup. Wildcards are still matched one character
+ * at a time, by consuming edge labels character by character.
+ */
+public class RadixTrie {
+    private final Character wildcard;
+    private final RadixNode root;
+
+    /**
+     * Constructs a new RadixTrie.
+     *
+     * @param wildcard the character to use as a single-character glob
+     */
+    public RadixTrie(final Character wildcard) {
+        this.wildcard = wildcard;
+        this.root = new RadixNode(new char[0]);
+    }
+
+    /**
+     * Constructs a new RadixTrie, using the default wildcard character.
+     */
+    public RadixTrie() {
+        this(Words.DEFAULT_WILDCARD);
+    }
+
+    /**
+     * Adds a set of words to the trie.
+     *
+     * @param words the words to add to the trie. Each word must be
+     *              non-empty and may not contain a wildcard character.
+     *
+     * @throws RuntimeException
+     *         if any of the provided words cannot be added
+     */
+    public void addWords(final Set<String> words) {
+        if (null != words) {
+            words.forEach(word -> addWord(word));
+        }
+    }
+
+    /**
+     * Adds a word to the trie.
+     *
+     * @param word the word to add to the trie. Must be non-empty and
+     *             may not contain a wildcard character.
+     *
+     * @throws RuntimeException
+     *         if the provided {@code word} cannot be added
+     */
+    public void addWord(final String word) {
+        Words.check(word, wildcard);
+
+        RadixNode currentNode = root;
+        int index = 0;
+
+        while (index < word.length()) {
+            final RadixNode child = currentNode.getChild(word.charAt(index));
+
+            // Nothing shares the rest of the word; hang it all off one
+            // new edge.
+            if (null == child) {
+                final RadixNode leaf = new RadixNode(
+                    word.substring(index).toCharArray()
+                );
+                leaf.setCompleteWord(true);
+                currentNode.putChild(leaf);
+                return;
+            }
+
+            final char[] label = child.getLabel();
+            int common = 0;
+
+            while (common < label.length
+                    && index + common < word.length()
+                    && label[common] == word.charAt(index + common)) {
+                common++;
+            }
+
+            // The word diverges from, or ends inside, the child's edge:
+            // split the edge so that there is a node where it does.
+            if (common < label.length) {
+                final RadixNode split = new RadixNode(
+                    Arrays.copyOf(label, common)
+                );
+                child.setLabel(
+                    Arrays.copyOfRange(label, common, label.length)
+                );
+                split.putChild(child);
+                currentNode.putChild(split);
+                currentNode = split;
+            } else {
+                currentNode = child;
+            }
+
+            index += common;
+        }
+
+        currentNode.setCompleteWord(true);
+    }
+
+    /**
+     * Checks if the specified search expression (including zero or more
+     * wildcard characters) matches one or more prefixes.
+     *
+     * @param prefix the search expression to evaluate as potentially
+     *               being mapped to one or more word prefixes.
+     *
+     * @return true if a matching prefix exists; false, otherwise.
+     */
+    public boolean isPrefix(final String prefix) {
+        return null != prefix && !prefix.isEmpty()
+            && hasMatch(root, prefix, 0, true);
+    }
+
+    /**
+     * Checks if the specified search expression (including zero or more
+     * wildcard characters) matches one or more complete words.
+     *
+     * @param searchExpression the search expression to evaluate as
+     *                         potentially mapped to one or more
+     *                         complete words.
+     *
+     * @return true if there is at least one complete, matching word;
+     *         false, otherwise.
+     */
+    public boolean isWord(final String searchExpression) {
+        return null != searchExpression && !searchExpression.isEmpty()
+            && hasMatch(root, searchExpression, 0, false);
+    }
+
+    /**
+     * Gets the set of complete words that match the given search term.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard characters
+     *
+     * @return the set of complete words which match the search term;
+     *         may be empty, if none match.
+     */
+    public Set<String> getMatchingWords(final String searchTerm) {
+        final Set<String> matchingWords = new HashSet<>();
+
+        if (null == searchTerm || searchTerm.isEmpty()) {
+            return matchingWords;
+        }
+
+        collectMatchingWords(
+            root,
+            searchTerm,
+            new char[searchTerm.length()],
+            0,
+            matchingWords
+        );
+
+        return matchingWords;
+    }
+
+    /**
+     * Counts the complete words that match the given search term,
+     * without building the words themselves.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard characters
+     *
+     * @return the number of complete words which match the search
+     *         term; zero, if none match.
+     */
+    public int countMatchingWords(final String searchTerm) {
+        if (null == searchTerm || searchTerm.isEmpty()) {
+            return 0;
+        }
+
+        return countMatchingWords(root, searchTerm, 0);
+    }
+
+    /**
+     * Gets the number of nodes in the trie, including its root.
+     *
+     * @return the number of nodes in the trie
+     */
+    public int getNodeCount() {
+        return countNodes(root);
+    }
+
+    /**
+     * Walks the trie to find whether any node reachable by a search
+     * term is a complete word or, alternatively, a prefix.
+     *
+     * @param startNode the node from which to start the walk; the
+     *                  search term up to {@code index} has matched the
+     *                  path to the end of its label
+     * @param searchTerm the term we are using to search
+     * @param index the index into the searchTerm for the current
+     *              recursion
+     * @param prefix whether to look for a prefix, rather than a
+     *               complete word
+     *
+     * @return true if a matching node is reachable; false, otherwise
+     */
+    private boolean hasMatch(
+            final RadixNode startNode,
+            final String searchTerm,
+            final int index,
+            final boolean prefix) {
+
+        if (searchTerm.length() == index) {
+            return prefix
+                ? 0 != startNode.getChildCount()
+                : startNode.isCompleteWord();
+        }
+
+        final char character = searchTerm.charAt(index);
+
+        if (!isWildcard(character)) {
+            final RadixNode child = startNode.getChild(character);
+
+            return null != child
+                && hasMatchThrough(child, searchTerm, index, prefix);
+        }
+
+        for (int child = 0; child < startNode.getChildCount(); child++) {
+            if (hasMatchThrough(
+                    startNode.getChildAt(child), searchTerm, index, prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Matches the label of a node against the search term, and then
+     * continues the walk from that node.
+     *
+     * @param node the node whose label to match
+     * @param searchTerm the term we are using to search
+     * @param index the index into the searchTerm of the first
+     *              character of the label
+     * @param prefix whether to look for a prefix, rather than a
+     *               complete word
+     *
+     * @return true if a matching node is reachable; false, otherwise
+     */
+    private boolean hasMatchThrough(
+            final RadixNode node,
+            final String searchTerm,
+            final int index,
+            final boolean prefix) {
+
+        final int matched = matchLabel(node, searchTerm, index, null);
+
+        if (matched < 0) {
+            return false;
+        }
+
+        // The search term ended part way along the label, so there is
+        // more to some word here: a prefix, but not a complete word.
+        if (index + matched == searchTerm.length()
+                && matched < node.getLabel().length) {
+            return prefix;
+        }
+
+        return hasMatch(node, searchTerm, index + matched, prefix);
+    }
+
+    /**
+     * Collects the complete words that match the given search term.
+     *
+     * @param startNode the node at which to start the search; the
+     *                  search term up to {@code index} has matched the
+     *                  path to the end of its label
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard characters
+     * @param path the characters walked so far, in {@code [0, index)}
+     * @param index the index into {@code searchTerm}, used during
+     *              recursion
+     * @param matchingWords the set into which matches are collected
+     */
+    private void collectMatchingWords(
+            final RadixNode startNode,
+            final String searchTerm,
+            final char[] path,
+            final int index,
+            final Set<String> matchingWords) {
+
+        if (searchTerm.length() == index) {
+            if (startNode.isCompleteWord()) {
+                matchingWords.add(new String(path));
+            }
+
+            return;
+        }
+
+        final char character = searchTerm.charAt(index);
+
+        if (!isWildcard(character)) {
+            final RadixNode child = startNode.getChild(character);
+
+            if (null != child) {
+                collectMatchingWordsThrough(
+                    child, searchTerm, path, index, matchingWords
+                );
+            }
+
+            return;
+        }
+
+        for (int child = 0; child < startNode.getChildCount(); child++) {
+            collectMatchingWordsThrough(
+                startNode.getChildAt(child),
+                searchTerm,
+                path,
+                index,
+                matchingWords
+            );
+        }
+    }
+
+    /**
+     * Matches the label of a node against the search term, and then
+     * continues collecting matches from that node.
+     *
+     * @param node the node whose label to match
+     * @param searchTerm the term to lookup
+     * @param path the characters walked so far, in {@code [0, index)}
+     * @param index the index into the searchTerm of the first
+     *              character of the label
+     * @param matchingWords the set into which matches are collected
+     */
+    private void collectMatchingWordsThrough(
+            final RadixNode node,
+            final String searchTerm,
+            final char[] path,
+            final int index,
+            final Set<String> matchingWords) {
+
+        final int matched = matchLabel(node, searchTerm, index, path);
+
+        if (matched == node.getLabel().length) {
+            collectMatchingWords(
+                node, searchTerm, path, index + matched, matchingWords
+            );
+        }
+    }
+
+    /**
+     * Counts the complete words reachable by a search term.
+     *
+     * @param startNode the node from which to start the walk
+     * @param searchTerm the term we are using to search
+     * @param index the index into the searchTerm for the current
+     *              recursion
+     *
+     * @return the number of complete words reachable from {@code
+     *         startNode} by the rest of the search term
+     */
+    private int countMatchingWords(
+            final RadixNode startNode,
+            final String searchTerm,
+            final int index) {
+
+        if (searchTerm.length() == index) {
+            return startNode.isCompleteWord() ? 1 : 0;
+        }
+
+        final char character = searchTerm.charAt(index);
+
+        if (!isWildcard(character)) {
+            final RadixNode child = startNode.getChild(character);
+
+            return null == child
+                ? 0
+                : countMatchingWordsThrough(child, searchTerm, index);
+        }
+
+        int count = 0;
+
+        for (int child = 0; child < startNode.getChildCount(); child++) {
+            count += countMatchingWordsThrough(
+                startNode.getChildAt(child), searchTerm, index
+            );
+        }
+
+        return count;
+    }
+
+    /**
+     * Matches the label of a node against the search term, and then
+     * continues counting matches from that node.
+     *
+     * @param node the node whose label to match
+     * @param searchTerm the term we are using to search
+     * @param index the index into the searchTerm of the first
+     *              character of the label
+     *
+     * @return the number of complete words reachable through {@code
+     *         node} by the rest of the search term
+     */
+    private int countMatchingWordsThrough(
+            final RadixNode node,
+            final String searchTerm,
+            final int index) {
+
+        final int matched = matchLabel(node, searchTerm, index, null);
+
+        return matched == node.getLabel().length
+            ? countMatchingWords(node, searchTerm, index + matched)
+            : 0;
+    }
+
+    /**
+     * Matches the label of a node, one character at a time, against
+     * the search term.
+     *
+     * @param node the node whose label to match
+     * @param searchTerm the term we are using to search
+     * @param index the index into the searchTerm of the first
+     *              character of the label
+     * @param path if non-null, receives the matched characters of the
+     *             label, at the same positions as in the search term
+     *
+     * @return the number of characters of the label that matched
+     *         before the search term ran out, or -1 if a character of
+     *         the label does not match the search term
+     */
+    private int matchLabel(
+            final RadixNode node,
+            final String searchTerm,
+            final int index,
+            final char[] path) {
+
+        final char[] label = node.getLabel();
+        final int length = Math.min(
+            label.length, searchTerm.length() - index
+        );
+
+        for (int offset = 0; offset < length; offset++) {
+            final char character = searchTerm.charAt(index + offset);
+
+            if (!isWildcard(character) && character != label[offset]) {
+                return -1;
+            }
+
+            if (null != path) {
+                path[index + offset] = label[offset];
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Counts the nodes in the subtree rooted at a node.
+     *
+     * @param node the root of the subtree
+     *
+     * @return the number of nodes in the subtree, including its root
+     */
+    private int countNodes(final RadixNode node) {
+        int count = 1;
+
+        for (int child = 0; child < node.getChildCount(); child++) {
+            count += countNodes(node.getChildAt(child));
+        }
+
+        return count;
+    }
+
+    /**
+     * Checks whether a character of a search term is the wildcard.
+     *
+     * @param character the character to check
+     *
+     * @return true if {@code character} is the wildcard; false,
+     *         otherwise
+     */
+    private boolean isWildcard(final char character) {
+        return null != wildcard && wildcard == character;
+    }
+}
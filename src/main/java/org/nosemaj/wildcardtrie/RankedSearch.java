@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the heaviest complete words that match a search pattern, by a
+ * best-first walk of a Trie.
+ *
+ * The walk keeps a priority queue of candidates. A subtree is queued
+ * with the greatest weight recorded at its root, which bounds every
+ * word within it; a word is queued with its own weight. Whenever a
+ * word reaches the head of the queue, no word left in the trie can be
+ * heavier, so it is the next result. The walk stops after {@code k}
+ * results, and subtrees whose bound never reaches the head of the
+ * queue are never opened, however many words in them match.
+ *
+ * Words of equal weight come out in ascending order.
+ */
+final class RankedSearch {
+    /*
+     * The state of a candidate says how much of the pattern its path
+     * has matched. For a pattern with a glob, it is the set of
+     * positions kept by GlobSearch; otherwise, it is one more than the
+     * number of elements matched. Either way, zero means no match is
+     * possible.
+     */
+    private static final long NO_MATCH = 0L;
+
+    private final SearchPattern pattern;
+    private final GlobSearch globSearch;
+
+    /**
+     * Constructs a new RankedSearch.
+     *
+     * @param pattern the compiled search term
+     */
+    RankedSearch(final SearchPattern pattern) {
+        this.pattern = pattern;
+        this.globSearch = pattern.hasGlob() ? new GlobSearch(pattern) : null;
+    }
+
+    /**
+     * Gets the heaviest complete words that match the pattern.
+     *
+     * @param root the root of the trie
+     * @param k the most words to return
+     *
+     * @return up to {@code k} matching words, heaviest first
+     */
+    List<String> getTopMatchingWords(final Node root, final int k) {
+        final List<String> topWords = new ArrayList<>();
+        final PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        final long rootState = start(root);
+
+        if (NO_MATCH != rootState) {
+            queue.add(new Candidate(root, rootState, "", false));
+        }
+
+        while (topWords.size() < k && !queue.isEmpty()) {
+            final Candidate candidate = queue.poll();
+            final Node node = candidate.node;
+
+            if (candidate.word) {
+                topWords.add(candidate.path);
+                continue;
+            }
+
+            if (accepts(candidate.state) && node.isCompleteWord()) {
+                queue.add(
+                    new Candidate(node, candidate.state, candidate.path, true)
+                );
+            }
+
+            for (int child = 0; child < node.getChildCount(); child++) {
+                final char character = node.getChildKey(child);
+                final Node nextNode = node.getChildAt(child);
+                final long next = advance(nextNode, candidate.state, character);
+
+                if (NO_MATCH != next) {
+                    queue.add(new Candidate(
+                        nextNode, next, candidate.path + character, false
+                    ));
+                }
+            }
+        }
+
+        return topWords;
+    }
+
+    /**
+     * Gets the state of the walk at the root.
+     *
+     * @param root the root of the trie
+     *
+     * @return the state at the root
+     */
+    private long start(final Node root) {
+        if (null != globSearch) {
+            return globSearch.start(root);
+        }
+
+        return pattern.canMatchBelow(root, 0) ? 1L : NO_MATCH;
+    }
+
+    /**
+     * Moves the walk from a node down to one of its children.
+     *
+     * @param child the child being visited
+     * @param state the state at its parent
+     * @param character the character of {@code child}
+     *
+     * @return the state at {@code child}
+     */
+    private long advance(
+            final Node child,
+            final long state,
+            final char character) {
+
+        if (null != globSearch) {
+            return globSearch.advance(child, state, character);
+        }
+
+        final int index = (int) state - 1;
+
+        return index < pattern.length()
+            && pattern.matches(index, character)
+            && pattern.canMatchBelow(child, index + 1)
+            ? state + 1
+            : NO_MATCH;
+    }
+
+    /**
+     * Checks whether a state has matched the whole pattern.
+     *
+     * @param state the state at a node
+     *
+     * @return true if the path to the node matches the pattern
+     */
+    private boolean accepts(final long state) {
+        return null != globSearch
+            ? globSearch.accepts(state)
+            : pattern.length() + 1 == state;
+    }
+
+    /**
+     * A subtree, or a single word, waiting in the queue.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        private final Node node;
+        private final long state;
+        private final String path;
+        private final boolean word;
+        private final long weight;
+
+        /**
+         * Constructs a new Candidate.
+         *
+         * @param node the node reached by {@code path}
+         * @param state the state of the walk at {@code node}
+         * @param path the characters walked to reach {@code node}
+         * @param word whether the candidate is the word which ends at
+         *             {@code node}, rather than its whole subtree
+         */
+        Candidate(
+                final Node node,
+                final long state,
+                final String path,
+                final boolean word) {
+
+            this.node = node;
+            this.state = state;
+            this.path = path;
+            this.word = word;
+            this.weight = word ? node.getWeight() : node.getMaxWeight();
+        }
+
+        /**
+         * Orders candidates heaviest first, then by path. A subtree
+         * never shares a path with a word still queued, and if its
+         * path sorts before a word's, so do all of the words within
+         * it; so ties come out in ascending order of word.
+         *
+         * @param other the candidate to compare to
+         *
+         * @return a negative number if this candidate comes first
+         */
+        @Override
+        public int compareTo(final Candidate other) {
+            final int byWeight = Long.compare(other.weight, weight);
+
+            return 0 != byWeight ? byWeight : path.compareTo(other.path);
+        }
+    }
+}
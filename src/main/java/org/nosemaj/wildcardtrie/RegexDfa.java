@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A deterministic finite automaton for a regular expression, built
+ * lazily from a {@link RegexNfa} by the subset construction.
+ *
+ * Each state of the DFA is the set of NFA states that the input so far
+ * can have reached. A state, and each transition out of it, is only
+ * worked out the first time it is needed, and then remembered: a walk
+ * over a trie asks for the transitions on the characters that are
+ * actually there, which is far fewer than the DFA could have in all.
+ *
+ * The empty set of NFA states is never interned; a transition into it
+ * yields {@link #DEAD}, and no word can match along that path.
+ */
+final class RegexDfa {
+    /** The state reached once no match is possible any longer. */
+    static final int DEAD = -1;
+
+    private static final int UNKNOWN = -2;
+    private static final int ASCII = 128;
+
+    private final RegexNfa nfa;
+    private final Map<BitSet, Integer> ids = new HashMap<>();
+    private final List<BitSet> states = new ArrayList<>();
+    private final List<int[]> asciiTransitions = new ArrayList<>();
+    private final List<Map<Character, Integer>> otherTransitions =
+        new ArrayList<>();
+    private final BitSet accepting = new BitSet();
+    private final int start;
+
+    /**
+     * Compiles a regular expression.
+     *
+     * @param regex the expression to compile
+     *
+     * @throws RuntimeException
+     *         if the expression is malformed
+     */
+    RegexDfa(final String regex) {
+        this.nfa = new RegexNfa(regex);
+
+        final BitSet initial = new BitSet(nfa.getStateCount());
+        addClosure(initial, nfa.getStart());
+
+        this.start = intern(initial);
+    }
+
+    /**
+     * Gets the state at which matching starts.
+     *
+     * @return the start state
+     */
+    int getStart() {
+        return start;
+    }
+
+    /**
+     * Checks whether a state accepts, that is, whether the input that
+     * reached it is matched by the expression.
+     *
+     * @param state a state other than {@link #DEAD}
+     *
+     * @return true if {@code state} accepts; false, otherwise
+     */
+    boolean isAccepting(final int state) {
+        return accepting.get(state);
+    }
+
+    /**
+     * Moves from a state on a character.
+     *
+     * @param state a state other than {@link #DEAD}
+     * @param character the next character of the input
+     *
+     * @return the next state, or {@link #DEAD} if nothing can match any
+     *         more
+     */
+    int step(final int state, final char character) {
+        if (character < ASCII) {
+            final int[] transitions = asciiTransitions.get(state);
+
+            if (UNKNOWN == transitions[character]) {
+                transitions[character] = computeStep(state, character);
+            }
+
+            return transitions[character];
+        }
+
+        final Map<Character, Integer> transitions =
+            otherTransitions.get(state);
+        Integer next = transitions.get(character);
+
+        if (null == next) {
+            next = computeStep(state, character);
+            transitions.put(character, next);
+        }
+
+        return next;
+    }
+
+    /**
+     * Checks whether the expression matches the whole of a string.
+     *
+     * @param input the string to check
+     *
+     * @return true if {@code input} is matched; false, otherwise
+     */
+    boolean matches(final CharSequence input) {
+        int state = start;
+
+        for (int index = 0; index < input.length() && DEAD != state; index++) {
+            state = step(state, input.charAt(index));
+        }
+
+        return DEAD != state && isAccepting(state);
+    }
+
+    /**
+     * Works out a transition of the subset construction.
+     *
+     * @param state a state other than {@link #DEAD}
+     * @param character the character to move on
+     *
+     * @return the next state, or {@link #DEAD}
+     */
+    private int computeStep(final int state, final char character) {
+        final BitSet current = states.get(state);
+        final BitSet next = new BitSet(nfa.getStateCount());
+
+        for (int nfaState = current.nextSetBit(0); nfaState >= 0;
+                nfaState = current.nextSetBit(nfaState + 1)) {
+
+            if (RegexNfa.CHARACTER == nfa.getKind(nfaState)
+                    && nfa.matches(nfaState, character)) {
+                addClosure(next, nfa.getOut(nfaState));
+            }
+        }
+
+        return next.isEmpty() ? DEAD : intern(next);
+    }
+
+    /**
+     * Adds a state, and every state it reaches without consuming a
+     * character, to a set. Only character and match states are kept,
+     * so that equal sets are recognised as the same DFA state.
+     *
+     * @param set the set to add to
+     * @param nfaState the state to add
+     */
+    private void addClosure(final BitSet set, final int nfaState) {
+        final BitSet visited = new BitSet(nfa.getStateCount());
+        final int[] stack = new int[nfa.getStateCount()];
+        int depth = 0;
+
+        stack[depth++] = nfaState;
+        visited.set(nfaState);
+
+        while (depth > 0) {
+            final int current = stack[--depth];
+
+            final byte kind = nfa.getKind(current);
+
+            if (RegexNfa.SPLIT != kind && RegexNfa.EMPTY != kind) {
+                set.set(current);
+                continue;
+            }
+
+            // Both move to out; a split moves to its alternate as well.
+            if (!visited.get(nfa.getOut(current))) {
+                visited.set(nfa.getOut(current));
+                stack[depth++] = nfa.getOut(current);
+            }
+
+            if (RegexNfa.SPLIT == kind
+                    && !visited.get(nfa.getAlternate(current))) {
+                visited.set(nfa.getAlternate(current));
+                stack[depth++] = nfa.getAlternate(current);
+            }
+        }
+    }
+
+    /**
+     * Finds the state for a set of NFA states, adding it if it is new.
+     *
+     * @param set a non-empty set of character and match states
+     *
+     * @return the number of the state
+     */
+    private int intern(final BitSet set) {
+        final Integer existing = ids.get(set);
+
+        if (null != existing) {
+            return existing;
+        }
+
+        final int state = states.size();
+        final int[] transitions = new int[ASCII];
+        Arrays.fill(transitions, UNKNOWN);
+
+        ids.put(set, state);
+        states.add(set);
+        asciiTransitions.add(transitions);
+        otherTransitions.add(new HashMap<>());
+
+        for (int nfaState = set.nextSetBit(0); nfaState >= 0;
+                nfaState = set.nextSetBit(nfaState + 1)) {
+
+            if (RegexNfa.MATCH == nfa.getKind(nfaState)) {
+                accepting.set(state);
+            }
+        }
+
+        return state;
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.Arrays;
+
+/**
+ * A nondeterministic finite automaton compiled from a regular
+ * expression, by Thompson's construction.
+ *
+ * The expression language is a small subset of {@link
+ * java.util.regex.Pattern}'s:
+ * <ul>
+ *   <li>any character stands for itself, except for the operators
+ *       {@code . [ ( ) | * + ?} and {@code \};</li>
+ *   <li>{@code \} makes the character after it stand for itself,
+ *       unless it is a letter or digit;</li>
+ *   <li>{@code .} matches any one character;</li>
+ *   <li>{@code [...]} matches any one character of a {@link
+ *       CharClass}, which may not contain {@code \}, {@code [} or
+ *       {@code &&};</li>
+ *   <li>{@code (...)} groups, and {@code |} separates
+ *       alternatives;</li>
+ *   <li>{@code *}, {@code +} and {@code ?} repeat what precedes them
+ *       zero or more times, one or more times, or at most once.</li>
+ * </ul>
+ * An expression must match the whole of a word. Anything else which
+ * {@code Pattern} would not take literally -- escapes such as {@code
+ * \d} and {@code \w}, bounded repetition such as {@code {n,m}}, the
+ * anchors {@code ^} and {@code $}, and stacked quantifiers such as
+ * {@code a**} or the lazy {@code a*?} -- is rejected rather than
+ * misread.
+ *
+ * States are numbered from zero, and held in parallel arrays. A
+ * character state moves to {@code out} on a character its class
+ * matches; a split state moves to both {@code out} and {@code
+ * alternate} without consuming anything, as does an empty state, to
+ * {@code out} alone.
+ */
+final class RegexNfa {
+    static final byte CHARACTER = 0;
+    static final byte SPLIT = 1;
+    static final byte EMPTY = 2;
+    static final byte MATCH = 3;
+
+    private static final int UNLINKED = -1;
+    private static final CharClass ANY = new CharClass(true);
+
+    private final String regex;
+    private final int start;
+
+    private byte[] kinds;
+    private CharClass[] classes;
+    private int[] outs;
+    private int[] alternates;
+    private int stateCount;
+    private int index;
+
+    /**
+     * Compiles a regular expression.
+     *
+     * @param regex the expression to compile
+     *
+     * @throws RuntimeException
+     *         if the expression is malformed
+     */
+    RegexNfa(final String regex) {
+        this.regex = regex;
+        this.kinds = new byte[Math.max(4, regex.length() * 2)];
+        this.classes = new CharClass[kinds.length];
+        this.outs = new int[kinds.length];
+        this.alternates = new int[kinds.length];
+
+        final int[] fragment = parseAlternation();
+
+        if (index != regex.length()) {
+            throw invalid();
+        }
+
+        final int match = addState(MATCH, null, UNLINKED, UNLINKED);
+
+        outs[fragment[1]] = match;
+        this.start = fragment[0];
+    }
+
+    /**
+     * Gets the state at which matching starts.
+     *
+     * @return the start state
+     */
+    int getStart() {
+        return start;
+    }
+
+    /**
+     * Gets the number of states.
+     *
+     * @return the number of states
+     */
+    int getStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * Gets the kind of a state.
+     *
+     * @param state the state
+     *
+     * @return one of {@link #CHARACTER}, {@link #SPLIT}, {@link #EMPTY}
+     *         and {@link #MATCH}
+     */
+    byte getKind(final int state) {
+        return kinds[state];
+    }
+
+    /**
+     * Checks whether a character state matches a character.
+     *
+     * @param state a character state
+     * @param character the character to match
+     *
+     * @return true if the state can consume {@code character}
+     */
+    boolean matches(final int state, final char character) {
+        return classes[state].matches(character);
+    }
+
+    /**
+     * Gets the state that a state moves to.
+     *
+     * @param state a character, split or empty state
+     *
+     * @return the next state
+     */
+    int getOut(final int state) {
+        return outs[state];
+    }
+
+    /**
+     * Gets the second state that a split state moves to.
+     *
+     * @param state a split state
+     *
+     * @return the alternative next state
+     */
+    int getAlternate(final int state) {
+        return alternates[state];
+    }
+
+    /*
+     * Each parse method returns a fragment of the automaton, as a pair
+     * of its first state and its last, an empty state whose out is
+     * left to be linked to whatever follows.
+     */
+
+    /**
+     * Parses alternatives separated by {@code |}.
+     *
+     * @return the fragment which matches any of them
+     */
+    private int[] parseAlternation() {
+        int[] fragment = parseConcatenation();
+
+        while (index < regex.length() && '|' == regex.charAt(index)) {
+            index++;
+
+            final int[] alternative = parseConcatenation();
+            final int end = addState(EMPTY, null, UNLINKED, UNLINKED);
+
+            outs[fragment[1]] = end;
+            outs[alternative[1]] = end;
+            fragment = new int[] {
+                addState(SPLIT, null, fragment[0], alternative[0]),
+                end
+            };
+        }
+
+        return fragment;
+    }
+
+    /**
+     * Parses a run of repeated atoms, up to the end of a group or an
+     * alternative.
+     *
+     * @return the fragment which matches them one after another
+     */
+    private int[] parseConcatenation() {
+        final int empty = addState(EMPTY, null, UNLINKED, UNLINKED);
+        final int[] fragment = {empty, empty};
+
+        while (index < regex.length()
+                && '|' != regex.charAt(index)
+                && ')' != regex.charAt(index)) {
+
+            final int[] next = parseRepetition();
+
+            outs[fragment[1]] = next[0];
+            fragment[1] = next[1];
+        }
+
+        return fragment;
+    }
+
+    /**
+     * Parses an atom and the {@code *}, {@code +} or {@code ?} after
+     * it, if any. A second quantifier straight after the first is
+     * rejected: {@code Pattern} either rejects it too, or reads it as
+     * making the first lazy or possessive.
+     *
+     * @return the fragment which matches the repeated atom
+     *
+     * @throws RuntimeException
+     *         if the atom is followed by more than one quantifier
+     */
+    private int[] parseRepetition() {
+        int[] fragment = parseAtom();
+
+        if (index < regex.length() && isQuantifier(regex.charAt(index))) {
+            final char operator = regex.charAt(index);
+
+            index++;
+
+            if (index < regex.length() && isQuantifier(regex.charAt(index))) {
+                throw invalid();
+            }
+
+            final int end = addState(EMPTY, null, UNLINKED, UNLINKED);
+            final int split = addState(SPLIT, null, fragment[0], end);
+
+            if ('*' == operator) {
+                outs[fragment[1]] = split;
+                fragment = new int[] {split, end};
+            } else if ('+' == operator) {
+                outs[fragment[1]] = split;
+                fragment = new int[] {fragment[0], end};
+            } else {
+                outs[fragment[1]] = end;
+                fragment = new int[] {split, end};
+            }
+        }
+
+        return fragment;
+    }
+
+    /**
+     * Checks whether a character is one of the quantifiers.
+     *
+     * @param character the character to check
+     *
+     * @return true if {@code character} is {@code *}, {@code +} or
+     *         {@code ?}; false, otherwise
+     */
+    private static boolean isQuantifier(final char character) {
+        return '*' == character || '+' == character || '?' == character;
+    }
+
+    /**
+     * Parses a single character, class or group.
+     *
+     * @return the fragment which matches it
+     */
+    private int[] parseAtom() {
+        final char character = regex.charAt(index);
+        final CharClass charClass;
+
+        switch (character) {
+            case '(':
+                index++;
+
+                final int[] group = parseAlternation();
+
+                if (index >= regex.length() || ')' != regex.charAt(index)) {
+                    throw invalid();
+                }
+
+                index++;
+                return group;
+            case '*':
+            case '+':
+            case '?':
+                throw invalid();
+            case '.':
+                charClass = ANY;
+                index++;
+                break;
+            case '{':
+            case '^':
+            case '$':
+                throw invalid();
+            case CharClass.OPEN:
+                final int close = CharClass.findClose(regex, index);
+                final String members = regex.substring(index + 1, close);
+
+                if (members.indexOf('\\') >= 0
+                        || members.indexOf(CharClass.OPEN) >= 0
+                        || members.contains("&&")) {
+                    throw invalid();
+                }
+
+                charClass = CharClass.parse(regex, index, close);
+                index = close + 1;
+                break;
+            case '\\':
+                if (index + 1 >= regex.length()
+                        || Character.isLetterOrDigit(regex.charAt(index + 1))) {
+                    throw invalid();
+                }
+
+                charClass = new CharClass(false);
+                charClass.add(regex.charAt(index + 1), regex.charAt(index + 1));
+                index += 2;
+                break;
+            default:
+                charClass = new CharClass(false);
+                charClass.add(character, character);
+                index++;
+                break;
+        }
+
+        final int end = addState(EMPTY, null, UNLINKED, UNLINKED);
+
+        return new int[] {addState(CHARACTER, charClass, end, UNLINKED), end};
+    }
+
+    /**
+     * Adds a state, growing the arrays if need be.
+     *
+     * @param kind the kind of the state
+     * @param charClass the class of a character state; else, null
+     * @param out the state to move to
+     * @param alternate the second state a split state moves to
+     *
+     * @return the number of the new state
+     */
+    private int addState(
+            final byte kind,
+            final CharClass charClass,
+            final int out,
+            final int alternate) {
+
+        if (kinds.length == stateCount) {
+            final int capacity = stateCount * 2;
+
+            kinds = Arrays.copyOf(kinds, capacity);
+            classes = Arrays.copyOf(classes, capacity);
+            outs = Arrays.copyOf(outs, capacity);
+            alternates = Arrays.copyOf(alternates, capacity);
+        }
+
+        kinds[stateCount] = kind;
+        classes[stateCount] = charClass;
+        outs[stateCount] = out;
+        alternates[stateCount] = alternate;
+
+        return stateCount++;
+    }
+
+    /**
+     * Makes the exception for a malformed expression.
+     *
+     * @return the exception to throw
+     */
+    private RuntimeException invalid() {
+        return new RuntimeException(
+            "Passed invalid regex (" + regex + ") at index " + index + "."
+        );
+    }
+}
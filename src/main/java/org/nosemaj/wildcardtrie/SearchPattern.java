@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.Arrays;
+
+/**
+ * A search term, compiled into the sequence of elements it matches.
+ *
+ * Each element of a pattern is one of:
+ * <ul>
+ *   <li>a literal, which matches one given character;</li>
+ *   <li>the wildcard, which matches any one character;</li>
+ *   <li>a {@link CharClass}, such as {@code [aeiou]} or {@code [^s]},
+ *       which matches any one character of a set, if classes are in
+ *       use; or</li>
+ *   <li>the glob, which matches any run of zero or more
+ *       characters.</li>
+ * </ul>
+ *
+ * A pattern without a glob only matches words of one length: the
+ * number of its elements.
+ */
+final class SearchPattern {
+    private static final byte LITERAL = 0;
+    private static final byte ANY = 1;
+    private static final byte GLOB = 2;
+    private static final byte CLASS = 3;
+
+    private final byte[] kinds;
+    private final char[] literals;
+    private final CharClass[] classes;
+    private final int[] minRemaining;
+    private final boolean[] fixedRemaining;
+
+    /**
+     * Constructs a new SearchPattern.
+     *
+     * @param kinds the kind of each element
+     * @param literals the character of each literal element
+     * @param classes the character class of each class element
+     */
+    private SearchPattern(
+            final byte[] kinds,
+            final char[] literals,
+            final CharClass[] classes) {
+
+        final int length = kinds.length;
+
+        this.kinds = kinds;
+        this.literals = literals;
+        this.classes = classes;
+        this.minRemaining = new int[length + 1];
+        this.fixedRemaining = new boolean[length + 1];
+
+        fixedRemaining[length] = true;
+
+        for (int position = length - 1; position >= 0; position--) {
+            final boolean glob = GLOB == kinds[position];
+
+            minRemaining[position] =
+                minRemaining[position + 1] + (glob ? 0 : 1);
+            fixedRemaining[position] = !glob && fixedRemaining[position + 1];
+        }
+    }
+
+    /**
+     * Compiles a search term.
+     *
+     * @param searchTerm the term to compile
+     * @param wildcard the single-character glob; may be null
+     * @param glob the zero-or-more character glob; may be null
+     * @param withClasses whether {@code [} opens a character class; if
+     *                    not, it is a literal
+     *
+     * @return the compiled pattern, or null if the search term is null
+     *         or empty
+     *
+     * @throws RuntimeException
+     *         if a character class in the search term is malformed
+     */
+    static SearchPattern compile(
+            final String searchTerm,
+            final Character wildcard,
+            final Character glob,
+            final boolean withClasses) {
+
+        if (null == searchTerm || searchTerm.isEmpty()) {
+            return null;
+        }
+
+        final int length = searchTerm.length();
+        final byte[] kinds = new byte[length];
+        final char[] literals = new char[length];
+        final CharClass[] classes = new CharClass[length];
+        int position = 0;
+
+        for (int index = 0; index < length; index++, position++) {
+            final char character = searchTerm.charAt(index);
+
+            if (null != wildcard && wildcard == character) {
+                kinds[position] = ANY;
+            } else if (null != glob && glob == character) {
+                kinds[position] = GLOB;
+            } else if (withClasses && CharClass.OPEN == character) {
+                final int close = CharClass.findClose(searchTerm, index);
+
+                kinds[position] = CLASS;
+                classes[position] = CharClass.parse(searchTerm, index, close);
+                index = close;
+            } else {
+                kinds[position] = LITERAL;
+                literals[position] = character;
+            }
+        }
+
+        if (position == length) {
+            return new SearchPattern(kinds, literals, classes);
+        }
+
+        return new SearchPattern(
+            Arrays.copyOf(kinds, position),
+            Arrays.copyOf(literals, position),
+            Arrays.copyOf(classes, position)
+        );
+    }
+
+    /**
+     * Gets the number of elements in the pattern.
+     *
+     * @return the number of elements in the pattern
+     */
+    int length() {
+        return kinds.length;
+    }
+
+    /**
+     * Checks whether the pattern contains a glob, and so may match
+     * words of more than one length.
+     *
+     * @return true if the pattern contains a glob; false, otherwise
+     */
+    boolean hasGlob() {
+        return !fixedRemaining[0];
+    }
+
+    /**
+     * Checks whether an element is a literal.
+     *
+     * @param position the position of the element
+     *
+     * @return true if the element is a literal; false, otherwise
+     */
+    boolean isLiteral(final int position) {
+        return LITERAL == kinds[position];
+    }
+
+    /**
+     * Gets the character of a literal element.
+     *
+     * @param position the position of a literal element
+     *
+     * @return the character the element matches
+     */
+    char getLiteral(final int position) {
+        return literals[position];
+    }
+
+    /**
+     * Checks whether an element is the glob.
+     *
+     * @param position the position of the element
+     *
+     * @return true if the element is the glob; false, otherwise
+     */
+    boolean isGlob(final int position) {
+        return GLOB == kinds[position];
+    }
+
+    /**
+     * Checks whether a single-character element matches a character.
+     *
+     * @param position the position of an element other than the glob
+     * @param character the character to match
+     *
+     * @return true if the element matches {@code character}; false,
+     *         otherwise
+     */
+    boolean matches(final int position, final char character) {
+        switch (kinds[position]) {
+            case ANY:
+                return true;
+            case CLASS:
+                return classes[position].matches(character);
+            default:
+                return literals[position] == character;
+        }
+    }
+
+    /**
+     * Checks whether the elements from a given position on could match
+     * the suffix of some word which passes through a node, judging only
+     * by the lengths of the words below it.
+     *
+     * @param node the node
+     * @param position the position of the first element to match
+     *
+     * @return false if no word below {@code node} is of a length that
+     *         the rest of the pattern could match; true, otherwise
+     */
+    boolean canMatchBelow(final Node node, final int position) {
+        return fixedRemaining[position]
+            ? node.hasSuffixOfLength(minRemaining[position])
+            : node.hasSuffixLongerThan(minRemaining[position] - 1);
+    }
+}
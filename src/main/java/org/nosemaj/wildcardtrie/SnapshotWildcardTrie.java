@@ -0,0 +1,424 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * SnapshotWildcardTrie holds a dictionary as a series of immutable
+ * versions, each a {@link WildcardTrie}, so that readers always see a
+ * consistent dictionary while a batch of changes is being made.
+ *
+ * A {@link Batch} makes its changes to a new version, copying only the
+ * nodes on the paths of the words it adds or removes; every other
+ * subtree is shared with the version before it. When the batch is
+ * committed, the new version is published with a single atomic swap.
+ * A search which started against the old version finishes against it,
+ * without locking, and the old version is collected once no reader
+ * holds it.
+ *
+ * Readers which make several calls and need them all to agree should
+ * take a {@link #snapshot()} and search that.
+ */
+public class SnapshotWildcardTrie {
+    private final Character wildcard;
+    private final Character glob;
+    private final boolean classes;
+    private final AtomicReference<WildcardTrie> current;
+
+    /**
+     * Constructs a new, empty SnapshotWildcardTrie.
+     *
+     * @param wildcard the character to use as a single-character glob;
+     *                 may be null
+     * @param glob the character to use as a zero-or-more character
+     *             glob; may be null
+     * @param classes whether to take {@code [} to open a character
+     *                class, and so reserve it
+     */
+    public SnapshotWildcardTrie(
+            final Character wildcard,
+            final Character glob,
+            final boolean classes) {
+
+        this.wildcard = wildcard;
+        this.glob = glob;
+        this.classes = classes;
+        this.current = new AtomicReference<>(
+            new Version(wildcard, glob, classes, new Node())
+        );
+    }
+
+    /**
+     * Constructs a new, empty SnapshotWildcardTrie, without character
+     * classes.
+     *
+     * @param wildcard the character to use as a single-character glob;
+     *                 may be null
+     * @param glob the character to use as a zero-or-more character
+     *             glob; may be null
+     */
+    public SnapshotWildcardTrie(
+            final Character wildcard,
+            final Character glob) {
+
+        this(wildcard, glob, false);
+    }
+
+    /**
+     * Constructs a new, empty SnapshotWildcardTrie, without a glob or
+     * character classes.
+     *
+     * @param wildcard the character to use as a single-character glob
+     */
+    public SnapshotWildcardTrie(final Character wildcard) {
+        this(wildcard, null);
+    }
+
+    /**
+     * Constructs a new, empty SnapshotWildcardTrie, using the default
+     * wildcard character, without a glob or character classes.
+     */
+    public SnapshotWildcardTrie() {
+        this(Words.DEFAULT_WILDCARD);
+    }
+
+    /**
+     * Gets the current version of the dictionary. The version never
+     * changes, whatever batches are committed after it is taken; any
+     * attempt to add words to it or remove words from it throws a
+     * RuntimeException.
+     *
+     * @return the current version of the dictionary
+     */
+    public WildcardTrie snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Starts a batch of changes to the current version.
+     *
+     * @return a new batch, based on the current version
+     */
+    public Batch batch() {
+        return new Batch(current.get());
+    }
+
+    /**
+     * Checks if the specified search expression (including zero or more
+     * wildcard characters) matches one or more prefixes, in the current
+     * version.
+     *
+     * @param prefix the search expression to evaluate as potentially
+     *               being mapped to one or more word prefixes.
+     *
+     * @return true if a matching prefix exists; false, otherwise.
+     */
+    public boolean isPrefix(final String prefix) {
+        return snapshot().isPrefix(prefix);
+    }
+
+    /**
+     * Checks if the specified search expression (including zero or more
+     * wildcard characters) matches one or more complete words, in the
+     * current version.
+     *
+     * @param searchExpression the search expression to evaluate as
+     *                         potentially mapped to one or more
+     *                         complete words.
+     *
+     * @return true if there is at least one complete, matching word;
+     *         false, otherwise.
+     */
+    public boolean isWord(final String searchExpression) {
+        return snapshot().isWord(searchExpression);
+    }
+
+    /**
+     * Gets the set of complete words that match the given search term,
+     * in the current version.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     *
+     * @return the set of complete words which match the search term;
+     *         may be empty, if none match.
+     */
+    public Set<String> getMatchingWords(final String searchTerm) {
+        return snapshot().getMatchingWords(searchTerm);
+    }
+
+    /**
+     * Counts the complete words that match the given search term, in
+     * the current version.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     *
+     * @return the number of complete words which match the search
+     *         term; zero, if none match.
+     */
+    public int countMatchingWords(final String searchTerm) {
+        return snapshot().countMatchingWords(searchTerm);
+    }
+
+    /**
+     * A set of changes to one version of the dictionary, which become
+     * visible to readers all at once, when committed.
+     *
+     * A batch is meant to be filled and committed by one thread. It
+     * may not be changed once committed.
+     */
+    public final class Batch {
+        private final WildcardTrie base;
+        private final Node root;
+        private final Set<Node> owned;
+        private final WildcardTrie draft;
+
+        private boolean committed;
+
+        /**
+         * Constructs a new Batch.
+         *
+         * @param base the version the changes are made to
+         */
+        private Batch(final WildcardTrie base) {
+            this.base = base;
+            this.root = base.getRoot().copy();
+            this.owned = Collections.newSetFromMap(new IdentityHashMap<>());
+            this.owned.add(root);
+            this.draft = new WildcardTrie(wildcard, glob, classes, root) {
+                @Override
+                Node newNode(final char character) {
+                    final Node node = super.newNode(character);
+                    owned.add(node);
+                    return node;
+                }
+            };
+            this.committed = false;
+        }
+
+        /**
+         * Adds a set of words.
+         *
+         * @param words the words to add. Each word must be non-empty
+         *              and may not contain a wildcard or glob character.
+         *
+         * @return this batch
+         *
+         * @throws RuntimeException
+         *         if any of the provided words cannot be added
+         */
+        public Batch addWords(final Set<String> words) {
+            if (null != words) {
+                words.forEach(word -> addWord(word));
+            }
+
+            return this;
+        }
+
+        /**
+         * Adds a word, as {@link WildcardTrie#addWord(String)} does.
+         *
+         * @param word the word to add. Must be non-empty and may not
+         *             contain a wildcard or glob character.
+         *
+         * @return this batch
+         *
+         * @throws RuntimeException
+         *         if the provided {@code word} cannot be added
+         */
+        public Batch addWord(final String word) {
+            ownPath(word);
+            draft.addWord(word);
+
+            return this;
+        }
+
+        /**
+         * Adds a word with a weight, as {@link
+         * WildcardTrie#addWord(String, long)} does.
+         *
+         * @param word the word to add. Must be non-empty and may not
+         *             contain a wildcard or glob character.
+         * @param weight the weight of the word; may not be negative
+         *
+         * @return this batch
+         *
+         * @throws RuntimeException
+         *         if the provided {@code word} cannot be added, or
+         *         {@code weight} is negative
+         */
+        public Batch addWord(final String word, final long weight) {
+            ownPath(word);
+            draft.addWord(word, weight);
+
+            return this;
+        }
+
+        /**
+         * Removes a set of words.
+         *
+         * @param words the words to remove. Words which are not in the
+         *              dictionary are ignored.
+         *
+         * @return this batch
+         */
+        public Batch removeWords(final Set<String> words) {
+            if (null != words) {
+                words.forEach(word -> removeWord(word));
+            }
+
+            return this;
+        }
+
+        /**
+         * Removes a word, as {@link WildcardTrie#removeWord(String)}
+         * does.
+         *
+         * @param word the word to remove
+         *
+         * @return true if the word was in the dictionary; false,
+         *         otherwise
+         */
+        public boolean removeWord(final String word) {
+            ownPath(word);
+
+            return draft.removeWord(word);
+        }
+
+        /**
+         * Publishes the changes as the new current version, unless
+         * another batch has been committed since this one was started,
+         * in which case the current version is left as it is.
+         *
+         * @return true if the changes were published; false, if
+         *         another batch got there first
+         */
+        public boolean commit() {
+            checkOpen();
+            committed = true;
+
+            return current.compareAndSet(
+                base, new Version(wildcard, glob, classes, root)
+            );
+        }
+
+        /**
+         * Makes sure that every node on a word's path, as far as it
+         * goes, belongs to this batch, copying those shared with the
+         * base version, so that the word may be added or removed
+         * without changing the base version.
+         *
+         * @param word the word whose path to copy
+         */
+        private void ownPath(final String word) {
+            checkOpen();
+
+            if (null == word) {
+                return;
+            }
+
+            Node node = root;
+
+            for (int index = 0; index < word.length(); index++) {
+                final char character = word.charAt(index);
+                Node child = node.getChild(character);
+
+                if (null == child) {
+                    return;
+                }
+
+                if (!owned.contains(child)) {
+                    child = child.copy();
+                    owned.add(child);
+                    node.putChild(character, child);
+                }
+
+                node = child;
+            }
+        }
+
+        /**
+         * Checks that this batch may still be changed.
+         *
+         * @throws RuntimeException
+         *         if this batch has already been committed
+         */
+        private void checkOpen() {
+            if (committed) {
+                throw new RuntimeException(
+                    "Passed changes to a batch after commit()."
+                );
+            }
+        }
+    }
+
+    /**
+     * A published version of the dictionary, which may not be changed.
+     */
+    private static final class Version extends WildcardTrie {
+        /**
+         * Constructs a new Version.
+         *
+         * @param wildcard the character to use as a single-character
+         *                 glob; may be null
+         * @param glob the character to use as a zero-or-more character
+         *             glob; may be null
+         * @param classes whether to take {@code [} to open a character
+         *                class
+         * @param root the root of the version's tree
+         */
+        private Version(
+                final Character wildcard,
+                final Character glob,
+                final boolean classes,
+                final Node root) {
+
+            super(wildcard, glob, classes, root);
+        }
+
+        @Override
+        Node insertWord(final String word, final long weight) {
+            throw new RuntimeException(
+                "Passed word (" + word + ") to addWord() on a snapshot."
+            );
+        }
+
+        @Override
+        public void addWords(
+                final Collection<String> words,
+                final ForkJoinPool pool) {
+
+            throw new RuntimeException(
+                "Passed words to addWords() on a snapshot."
+            );
+        }
+
+        @Override
+        public boolean removeWord(final String word) {
+            throw new RuntimeException(
+                "Passed word (" + word + ") to removeWord() on a snapshot."
+            );
+        }
+    }
+}
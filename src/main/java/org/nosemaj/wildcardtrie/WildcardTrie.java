@@ -17,286 +17,1576 @@
 package org.nosemaj.wildcardtrie;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * WildCardTrie is an implementation of a Trie which additionally
  * supports search terms that include a wildcard character.
+ *
+ * In a search term, the wildcard matches any one character: with the
+ * default, {@code f*n} matches "fun" and "fan". A trie constructed with
+ * a glob also takes it to match any run of zero or more characters:
+ * with {@code %} as the glob, {@code f%n} also matches "fin" and
+ * "fasten". There is no glob by default. A trie constructed with
+ * classes takes a character class in square brackets to match any one
+ * character of a set: {@code f[aeiou]n} matches "fan" and "fun",
+ * {@code f[^u]n} matches "fan" but not "fun", and ranges such as
+ * {@code [a-m]} may be used. Otherwise, as by default, {@code [} is a
+ * literal. A class is compiled into a bitmask once
+ * per search, and the walk only descends into the children whose
+ * character it matches. A malformed class makes the search throw a
+ * RuntimeException.
  */
 public class WildcardTrie {
-    private static final Character DEFAULT_WILDCARD = '*';
+    private final Character wildcard;
+    private final Character glob;
+    private final boolean classes;
+    private final Node root;
+
+    /**
+     * Constructs a new WildcardTrie.
+     *
+     * @param wildcard the character to use as a single-character glob;
+     *                 may be null
+     * @param glob the character to use as a zero-or-more character
+     *             glob; may be null
+     * @param classes whether to take {@code [} to open a character
+     *                class, and so reserve it
+     */
+    public WildcardTrie(
+            final Character wildcard,
+            final Character glob,
+            final boolean classes) {
+
+        this(wildcard, glob, classes, new Node());
+    }
+
+    /**
+     * Constructs a new WildcardTrie over an existing tree of nodes.
+     *
+     * @param wildcard the character to use as a single-character glob;
+     *                 may be null
+     * @param glob the character to use as a zero-or-more character
+     *             glob; may be null
+     * @param classes whether to take {@code [} to open a character
+     *                class, and so reserve it
+     * @param root the root of the tree
+     */
+    WildcardTrie(
+            final Character wildcard,
+            final Character glob,
+            final boolean classes,
+            final Node root) {
+
+        this.wildcard = wildcard;
+        this.glob = glob;
+        this.classes = classes;
+        this.root = root;
+    }
+
+    /**
+     * Constructs a new WildcardTrie, without character classes.
+     *
+     * @param wildcard the character to use as a single-character glob;
+     *                 may be null
+     * @param glob the character to use as a zero-or-more character
+     *             glob; may be null
+     */
+    public WildcardTrie(final Character wildcard, final Character glob) {
+        this(wildcard, glob, false);
+    }
+
+    /**
+     * Constructs a new WildcardTrie, without a glob or character
+     * classes.
+     *
+     * @param wildcard the character to use as a single-character glob
+     */
+    public WildcardTrie(final Character wildcard) {
+        this(wildcard, null);
+    }
+
+    /**
+     * Constructs a new WildcardTrie, using the default wildcard
+     * character, without a glob or character classes.
+     */
+    public WildcardTrie() {
+        this(Words.DEFAULT_WILDCARD);
+    }
+
+    /**
+     * Builds a trie from a sequence of words in ascending order, using
+     * the default wildcard character, without a glob or character
+     * classes.
+     *
+     * @param words the words to add, in ascending order. Each word must
+     *              be non-empty and may not contain a wildcard
+     *              character.
+     *
+     * @return a new trie holding the words
+     *
+     * @throws RuntimeException
+     *         if any of the provided words cannot be added
+     *
+     * @see #fromSorted(Iterator, Character, Character)
+     */
+    public static WildcardTrie fromSorted(final Iterator<String> words) {
+        return fromSorted(words, Words.DEFAULT_WILDCARD, null);
+    }
+
+    /**
+     * Builds a trie from a sequence of words in ascending order, in one
+     * pass. The trie does not take character classes.
+     *
+     * The nodes along the path of the previous word are kept on a
+     * stack. Each word shares a prefix with the previous one, and sorts
+     * after it, so its remaining nodes are appended as the last
+     * children of the nodes on that path, without looking up any
+     * child. The nodes below the shared prefix can gain no more
+     * children; as they are popped off the stack, their children
+     * arrays are trimmed to fit, and their suffix lengths are worked
+     * out from their children's.
+     *
+     * A word which sorts before the previous one is added the ordinary
+     * way, with a lookup per character, so the trie is the same as one
+     * built with {@link #addWord(String)}, only more slowly built.
+     * Repeated words have no effect.
+     *
+     * @param words the words to add, in ascending order. Each word must
+     *              be non-empty and may not contain a wildcard or glob
+     *              character.
+     * @param wildcard the character to use as a single-character glob;
+     *                 may be null
+     * @param glob the character to use as a zero-or-more character
+     *             glob; may be null
+     *
+     * @return a new trie holding the words
+     *
+     * @throws RuntimeException
+     *         if any of the provided words cannot be added
+     */
+    public static WildcardTrie fromSorted(
+            final Iterator<String> words,
+            final Character wildcard,
+            final Character glob) {
+
+        final WildcardTrie trie = new WildcardTrie(wildcard, glob);
+        final List<Node> path = new ArrayList<>();
+        String previousWord = "";
+
+        path.add(trie.root);
+
+        while (null != words && words.hasNext()) {
+            final String word = words.next();
+            trie.checkWord(word);
+
+            final int order = word.compareTo(previousWord);
+
+            if (order < 0) {
+                trie.insertBelow(trie.root, word, 0, 0L);
+                continue;
+            } else if (0 == order) {
+                continue;
+            }
+
+            int common = 0;
+
+            while (common < previousWord.length()
+                    && previousWord.charAt(common) == word.charAt(common)) {
+                common++;
+            }
+
+            finishPath(path, common + 1);
+
+            for (int index = common; index < word.length(); index++) {
+                final char character = word.charAt(index);
+                final Node child = trie.newNode(character);
+
+                path.get(index).putChild(character, child);
+                path.add(child);
+            }
+
+            path.get(word.length()).setCompleteWord(true);
+            previousWord = word;
+        }
+
+        finishPath(path, 0);
+
+        return trie;
+    }
+
+    /**
+     * Pops nodes off the path built by {@link #fromSorted(Iterator,
+     * Character, Character)}, deepest first, trimming their children
+     * arrays and working out their suffix lengths and word counts.
+     *
+     * @param path the nodes along the path of the previous word
+     * @param depth the number of nodes to leave on the path
+     */
+    private static void finishPath(final List<Node> path, final int depth) {
+        while (path.size() > depth) {
+            final Node node = path.remove(path.size() - 1);
+
+            node.trimChildren();
+            node.recomputeSuffixLengths();
+            node.recomputeWordCount();
+        }
+    }
+
+    /**
+     * Adds a set of words to the trie.
+     *
+     * @param words the words to add to the trie. Each word must be
+     *              non-empty and may not contain a wildcard or glob
+     *              character.
+     *
+     * @throws RuntimeException
+     *         if any of the provided words cannot be added
+     */
+    public void addWords(final Set<String> words) {
+        if (null != words) {
+            words.forEach(word -> addWord(word));
+        }
+    }
+
+    /**
+     * Adds a collection of words to the trie, building the subtrees
+     * for different leading characters on different threads of a pool.
+     *
+     * The words are first checked and sorted into shards by their
+     * first character. The children of the root which the shards need
+     * are then created, and each shard is added to its own child's
+     * subtree as a separate task. No two tasks touch the same node, so
+     * no node needs to be safe for concurrent use. Last, the records
+     * the root keeps of the words below it are brought up to date. The
+     * trie must not be used by any other thread until the load is
+     * done.
+     *
+     * @param words the words to add to the trie. Each word must be
+     *              non-empty and may not contain a wildcard or glob
+     *              character.
+     * @param pool the pool to build the subtrees in, such as {@link
+     *             ForkJoinPool#commonPool()}
+     *
+     * @throws RuntimeException
+     *         if any of the provided words cannot be added, in which
+     *         case none of them is
+     */
+    public void addWords(
+            final Collection<String> words,
+            final ForkJoinPool pool) {
+
+        if (null == words) {
+            return;
+        }
+
+        final Map<Character, List<String>> shards = new HashMap<>();
+
+        for (final String word : words) {
+            checkWord(word);
+            shards.computeIfAbsent(word.charAt(0), key -> new ArrayList<>())
+                .add(word);
+        }
+
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+        for (final Map.Entry<Character, List<String>> shard
+                : shards.entrySet()) {
+
+            final char character = shard.getKey();
+            Node child = root.getChild(character);
+
+            if (null == child) {
+                child = newNode(character);
+                root.putChild(character, child);
+            }
+
+            final Node subtree = child;
+
+            tasks.add(pool.submit(() -> {
+                for (final String word : shard.getValue()) {
+                    insertBelow(subtree, word, 1, 0L);
+                }
+            }));
+        }
+
+        for (final ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        root.recomputeSuffixLengths();
+        root.recomputeMaxWeight();
+        root.recomputeWordCount();
+    }
+
+    /**
+     * Adds a word to the trie. A word which is new to the trie has a
+     * weight of zero; a word which is already in it keeps its weight.
+     *
+     * @param word the word to add to the trie. Must be non-empty and
+     *             may not contain a wildcard or glob character.
+     *
+     * @throws RuntimeException
+     *         if the provided {@code word} cannot be added
+     */
+    public void addWord(final String word) {
+        insertWord(word, 0L);
+    }
+
+    /**
+     * Adds a word to the trie with a weight, such as its frequency, by
+     * which {@link #getTopMatchingWords(String, int)} ranks it. If the
+     * word is already in the trie, its weight is replaced.
+     *
+     * @param word the word to add to the trie. Must be non-empty and
+     *             may not contain a wildcard or glob character.
+     * @param weight the weight of the word; may not be negative
+     *
+     * @throws RuntimeException
+     *         if the provided {@code word} cannot be added, or {@code
+     *         weight} is negative
+     */
+    public void addWord(final String word, final long weight) {
+        if (weight < 0) {
+            throw new RuntimeException(
+                "Passed invalid weight (" + weight + ") to addWord()."
+            );
+        }
+
+        final Node node = insertWord(word, weight);
+        final long previous = node.getWeight();
+
+        node.setWeight(weight);
+
+        // A heavier word has already raised the greatest weights on its
+        // path; a lighter one may have to lower them again.
+        if (weight < previous) {
+            recomputeMaxWeights(word);
+        }
+    }
+
+    /**
+     * Removes a set of words from the trie.
+     *
+     * @param words the words to remove from the trie. Words which are
+     *              not in the trie are ignored.
+     */
+    public void removeWords(final Set<String> words) {
+        if (null != words) {
+            words.forEach(word -> removeWord(word));
+        }
+    }
+
+    /**
+     * Removes a word from the trie. The nodes which led only to the
+     * word are unlinked, up to the nearest ancestor which branches or
+     * completes another word, so the trie holds no more nodes than if
+     * the word had never been added. Takes time in proportion to the
+     * length of the word.
+     *
+     * @param word the word to remove, taking every character of it
+     *             literally
+     *
+     * @return true if the word was in the trie; false, otherwise
+     */
+    public boolean removeWord(final String word) {
+        if (null == word || word.isEmpty()) {
+            return false;
+        }
+
+        final Node[] path = new Node[word.length() + 1];
+        path[0] = root;
+
+        for (int index = 0; index < word.length(); index++) {
+            path[index + 1] = path[index].getChild(word.charAt(index));
+
+            if (null == path[index + 1]) {
+                return false;
+            }
+        }
+
+        final Node node = path[word.length()];
+
+        if (!node.isCompleteWord()) {
+            return false;
+        }
+
+        node.setCompleteWord(false);
+        node.setWeight(0L);
+        clearNode(node);
+
+        // Prune from the bottom up while the nodes are left empty, then
+        // count the word out of every node left on its path, and bring
+        // the suffix lengths and greatest weights up to date until a
+        // node is found whose records are unchanged.
+        boolean pruning = true;
+        boolean recomputing = true;
+
+        for (int index = word.length(); index >= 0; index--) {
+            final Node current = path[index];
+
+            if (pruning && index > 0 && 0 == current.getChildCount()
+                    && !current.isCompleteWord()) {
+
+                path[index - 1].removeChild(word.charAt(index - 1));
+                continue;
+            }
+
+            pruning = false;
+            current.addToWordCount(-1);
+
+            if (recomputing) {
+                final boolean suffixesChanged =
+                    current.recomputeSuffixLengths();
+                final boolean weightChanged = current.recomputeMaxWeight();
+
+                recomputing = suffixesChanged || weightChanged;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds the nodes for a word to the trie, if they are not there
+     * already, and marks the last of them as a complete word.
+     *
+     * @param word the word to add to the trie
+     * @param weight the weight by which to raise the greatest weights
+     *               recorded along the word's path
+     *
+     * @return the node which completes the word
+     *
+     * @throws RuntimeException
+     *         if the provided {@code word} cannot be added
+     */
+    Node insertWord(final String word, final long weight) {
+        checkWord(word);
+
+        return insertBelow(root, word, 0, weight);
+    }
+
+    /**
+     * Adds the nodes for the rest of a word below a node, if they are
+     * not there already, and marks the last of them as a complete word.
+     * Only the nodes from {@code node} down are changed.
+     *
+     * @param node the node reached by the first {@code start}
+     *             characters of the word
+     * @param word a valid word
+     * @param start the number of characters of the word already walked
+     * @param weight the weight by which to raise the greatest weights
+     *               recorded along the word's path
+     *
+     * @return the node which completes the word
+     */
+    private Node insertBelow(
+            final Node node,
+            final String word,
+            final int start,
+            final long weight) {
+
+        Node currentNode = node;
+
+        // Count the word in along its path, as if it were new; if it
+        // turns out to be in the trie already, count it out again.
+        for (int index = start; index < word.length(); index++) {
+            final char currentChar = word.charAt(index);
+            currentNode.addSuffixLength(word.length() - index);
+            currentNode.raiseMaxWeight(weight);
+            currentNode.addToWordCount(1);
+            Node nextNode = currentNode.getChild(currentChar);
+
+            if (null == nextNode) {
+                nextNode = newNode(currentChar);
+                currentNode.putChild(currentChar, nextNode);
+            }
+            
+            currentNode = nextNode;
+        }
+
+        if (currentNode.isCompleteWord()) {
+            Node pathNode = node;
+
+            for (int index = start; index < word.length(); index++) {
+                pathNode.addToWordCount(-1);
+                pathNode = pathNode.getChild(word.charAt(index));
+            }
+        } else {
+            currentNode.addToWordCount(1);
+            currentNode.setCompleteWord(true);
+        }
+
+        return currentNode;
+    }
+
+    /**
+     * Checks that a word may be added to the trie.
+     *
+     * @param word the word to check
+     *
+     * @throws RuntimeException
+     *         if the provided {@code word} cannot be added
+     */
+    private void checkWord(final String word) {
+        Words.check(word, wildcard, glob, classOpen());
+    }
+
+    /**
+     * Checks whether a word may be added to the trie.
+     *
+     * @param word the word to check
+     *
+     * @return true if {@code word} may be added; false, otherwise
+     */
+    boolean isValidWord(final String word) {
+        return Words.isValid(word, wildcard, glob, classOpen());
+    }
+
+    /**
+     * Gets the character which opens a character class, if classes are
+     * in use.
+     *
+     * @return {@code [} if classes are in use; null, otherwise
+     */
+    private Character classOpen() {
+        return classes ? CharClass.OPEN : null;
+    }
+
+    /**
+     * Creates a node for a character of a word being added. Subclasses
+     * within the package may create nodes which hold more.
+     *
+     * @param character the character the node represents
+     *
+     * @return a new, empty node
+     */
+    Node newNode(final char character) {
+        return new Node(character);
+    }
+
+    /**
+     * Gets the root of the trie.
+     *
+     * @return the root node
+     */
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Clears whatever more than a word a node holds, when the word it
+     * completes is removed. The node itself may stay in the trie, on
+     * the path of longer words, so subclasses within the package which
+     * create nodes that hold more must clear it here, lest it come back
+     * when the word is added again.
+     *
+     * @param node the node of the word being removed
+     */
+    void clearNode(final Node node) {
+    }
+
+    /**
+     * Finds the node at which a word ends, taking every character of
+     * it literally.
+     *
+     * @param word the word to look up
+     *
+     * @return the node reached by {@code word}, which may or may not
+     *         delimit a complete word; or null, if there is none
+     */
+    Node findNode(final String word) {
+        if (null == word || word.isEmpty()) {
+            return null;
+        }
+
+        Node currentNode = root;
+
+        for (int index = 0; index < word.length() && null != currentNode;
+                index++) {
+            currentNode = currentNode.getChild(word.charAt(index));
+        }
+
+        return currentNode;
+    }
+
+    /**
+     * Brings the greatest weights recorded along a word's path up to
+     * date, from the bottom up, stopping at the first node whose
+     * greatest weight is unchanged.
+     *
+     * @param word a word whose path is in the trie
+     */
+    private void recomputeMaxWeights(final String word) {
+        final Node[] path = new Node[word.length() + 1];
+        path[0] = root;
+
+        for (int index = 0; index < word.length(); index++) {
+            path[index + 1] = path[index].getChild(word.charAt(index));
+        }
+
+        for (int index = word.length(); index >= 0; index--) {
+            if (!path[index].recomputeMaxWeight()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Makes an immutable, array-packed copy of the trie, for read-only
+     * use. Words added to this trie afterwards do not appear in the
+     * copy, which answers searches with the same wildcard, glob and
+     * classes.
+     *
+     * @return a frozen copy of the trie, which may be shared between
+     *         threads without locking
+     */
+    public FrozenWildcardTrie freeze() {
+        return new FrozenWildcardTrie(root, wildcard, glob, classes);
+    }
+
+    /**
+     * Checks if the specified search expression (including zero or more
+     * wildcard characters) matches one or more prefixes.
+     *
+     * @param searchExpression the search expression to evaluate as
+     *                         potentially being mapped to one or more
+     *                         word prefixes.
+     *
+     * @return true if a matching prefix exists; false, otherwise.
+     */
+    public boolean isPrefix(final String prefix) {
+        /*
+         * A prefix isn't just anything that isn't a complete word.
+         * Consider "potato" and "potatos", both complete words.
+         * "potato" is a complete word AND a prefix, to "potatos".
+         */
+        return hasMatch(compile(prefix), true);
+    }
+
+    /**
+     * Checks if the specified search expression (including zero or more
+     * wildcard characters) matches one or more complete words.
+     *
+     * @param searchExpression the search expression to evaluate as
+     *                         potentially mapped to one or more
+     *                         complete words.
+     *
+     * @return true if there is at least one complete, matching word;
+     *         false, otherwise.
+     */
+    public boolean isWord(final String searchExpression) {
+        return hasMatch(compile(searchExpression), false);
+    }
+
+    /**
+     * Counts the complete words that match the given search term,
+     * without building the words themselves.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     *
+     * @return the number of complete words which match the search
+     *         term; zero, if none match.
+     */
+    public int countMatchingWords(final String searchTerm) {
+        final SearchPattern pattern = compile(searchTerm);
+
+        if (null == pattern) {
+            return 0;
+        } else if (pattern.hasGlob()) {
+            return new GlobSearch(pattern).countMatchingWords(root);
+        }
+
+        return countMatchingWords(root, pattern, 0);
+    }
+
+    /**
+     * Gets the number of nodes in the trie, including its root.
+     *
+     * @return the number of nodes in the trie
+     */
+    public int getNodeCount() {
+        return traverse().size();
+    }
+
+    /**
+     * Checks whether any node reachable by a search pattern is a
+     * complete word or, alternatively, a prefix.
+     *
+     * @param pattern the compiled search term; may be null
+     * @param prefix whether to look for a node with children, rather
+     *               than a node which delimits a complete word
+     *
+     * @return true if a matching node is reachable; false, otherwise
+     */
+    private boolean hasMatch(
+            final SearchPattern pattern,
+            final boolean prefix) {
+
+        if (null == pattern) {
+            return false;
+        } else if (pattern.hasGlob()) {
+            return new GlobSearch(pattern).hasMatch(root, prefix);
+        }
+
+        return hasMatch(root, pattern, 0, prefix);
+    }
+
+    /**
+     * Walks the Trie to find whether any node reachable by a search
+     * pattern without a glob is a complete word or, alternatively, a
+     * prefix. The walk stops at the first such node it finds.
+     *
+     * @param startNode the node from which to start the walk
+     * @param pattern the compiled search term
+     * @param index the index into the pattern for the current
+     *              recursion
+     * @param prefix whether to look for a node with children, rather
+     *               than a node which delimits a complete word
+     *
+     * @return true if a matching node is reachable; false, otherwise
+     */
+    private boolean hasMatch(
+            final Node startNode,
+            final SearchPattern pattern,
+            final int index,
+            final boolean prefix) {
+
+        // Skip the subtree if no word below it is long enough.
+        final int remaining = pattern.length() - index;
+
+        if (prefix
+                ? !startNode.hasSuffixLongerThan(remaining)
+                : !startNode.hasSuffixOfLength(remaining)) {
+            return false;
+        }
+
+        // Base case: the whole search term has been consumed, so this
+        // node is the one to check.
+        if (pattern.length() == index) {
+            return prefix
+                ? 0 != startNode.getChildCount()
+                : startNode.isCompleteWord();
+        }
+
+        if (pattern.isLiteral(index)) {
+            final Node nextNode =
+                startNode.getChild(pattern.getLiteral(index));
+
+            return null != nextNode
+                && hasMatch(nextNode, pattern, index + 1, prefix);
+        }
+
+        // The character being processed is a wildcard; stop at the
+        // first child which leads to a match.
+        for (int child = 0; child < startNode.getChildCount(); child++) {
+            final Node nextNode = startNode.getChildAt(child);
+
+            if (pattern.matches(index, startNode.getChildKey(child))
+                    && hasMatch(nextNode, pattern, index + 1, prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Counts the complete words reachable by a search pattern without
+     * a glob.
+     *
+     * @param startNode the node from which to start the walk
+     * @param pattern the compiled search term
+     * @param index the index into the pattern for the current
+     *              recursion
+     *
+     * @return the number of complete words reachable from {@code
+     *         startNode} by the rest of the search term
+     */
+    private int countMatchingWords(
+            final Node startNode,
+            final SearchPattern pattern,
+            final int index) {
+
+        if (!pattern.canMatchBelow(startNode, index)) {
+            return 0;
+        }
+
+        if (pattern.length() == index) {
+            return startNode.isCompleteWord() ? 1 : 0;
+        }
+
+        if (pattern.isLiteral(index)) {
+            final Node nextNode =
+                startNode.getChild(pattern.getLiteral(index));
+
+            return null == nextNode
+                ? 0
+                : countMatchingWords(nextNode, pattern, index + 1);
+        }
+
+        int count = 0;
+
+        for (int child = 0; child < startNode.getChildCount(); child++) {
+            if (pattern.matches(index, startNode.getChildKey(child))) {
+                count += countMatchingWords(
+                    startNode.getChildAt(child),
+                    pattern,
+                    index + 1
+                );
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Gets the set of complete words that match the given search term.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     *
+     * @return the set of complete words which match the search term;
+     *         may be empty, if none match.
+     */
+    public Set<String> getMatchingWords(final String searchTerm) {
+        final Set<String> matchingWords = new HashSet<>();
+        final SearchPattern pattern = compile(searchTerm);
+
+        if (null == pattern) {
+            return matchingWords;
+        } else if (pattern.hasGlob()) {
+            new GlobSearch(pattern).collectMatchingWords(root, matchingWords);
+            return matchingWords;
+        }
+
+        // A match is exactly as long as the search term, so a single
+        // buffer of that length can hold the path for the whole walk.
+        collectMatchingWords(
+            root,
+            pattern,
+            new char[pattern.length()],
+            0,
+            matchingWords
+        );
+
+        return matchingWords;
+    }
+
+    /**
+     * Gets up to {@code maxResults} of the complete words that match
+     * the given search term.
+     *
+     * The trie is walked in ascending character order, and the walk
+     * stops as soon as enough words have been found, so the cost is
+     * proportional to the size of the page asked for rather than to
+     * the number of words which match. The words returned are the
+     * first {@code maxResults} matches in ascending order, so
+     * repeating the query returns the same page.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     * @param maxResults the most matching words to return
+     *
+     * @return at most {@code maxResults} of the complete words which
+     *         match the search term, in ascending order; may be empty,
+     *         if none match.
+     *
+     * @throws RuntimeException
+     *         if {@code maxResults} is negative
+     */
+    public List<String> getMatchingWords(
+            final String searchTerm,
+            final int maxResults) {
 
-    private final Character wildcard;
-    private final Node root;
+        if (maxResults < 0) {
+            throw new RuntimeException(
+                "Passed invalid maxResults (" + maxResults
+                + ") to getMatchingWords()."
+            );
+        }
+
+        final List<String> matchingWords = new ArrayList<>();
+
+        if (0 == maxResults) {
+            return matchingWords;
+        }
+
+        final Iterator<String> iterator = matchingWordsIterator(searchTerm);
+
+        while (matchingWords.size() < maxResults && iterator.hasNext()) {
+            matchingWords.add(iterator.next());
+        }
+
+        return matchingWords;
+    }
 
     /**
-     * Constructs a new WildcardTrie.
+     * Gets the set of complete words that match the given search term,
+     * splitting the walk across the threads of a pool.
      *
-     * @param wildcard the character to use as a single-character glob
+     * Each wildcard or character class over a large subtree fans out
+     * into one task per matching child, so heavy search terms such as
+     * {@code **a**e} keep every thread busy; where the subtrees are
+     * small, the walk carries on in the task which reached it. A search
+     * term with a glob is walked by the calling thread
+     * alone, as by {@link #getMatchingWords(String)}.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     * @param pool the pool to run the search in, such as {@link
+     *             ForkJoinPool#commonPool()}
+     *
+     * @return the set of complete words which match the search term;
+     *         may be empty, if none match.
      */
-    public WildcardTrie(final Character wildcard) {
-        this.wildcard = wildcard;
-        this.root = new Node();
+    public Set<String> getMatchingWords(
+            final String searchTerm,
+            final ForkJoinPool pool) {
+
+        final SearchPattern pattern = compile(searchTerm);
+
+        if (null == pattern || pattern.hasGlob()) {
+            return getMatchingWords(searchTerm);
+        }
+
+        return new HashSet<>(
+            pool.invoke(new ParallelSearch(this, root, pattern))
+        );
     }
 
     /**
-     * Constructs a new WildcardTrie, using the default wildcard
-     * character.
+     * Collects the complete words that match a search pattern without
+     * a glob.
+     *
+     * The characters of the path being walked are written into {@code
+     * path}; a String is only created once a complete word is found.
+     *
+     * @param startNode the node at which to start the search
+     * @param pattern the compiled search term
+     * @param path the characters walked so far, in {@code [0, index)}
+     * @param index the index into {@code pattern}, used during
+     *              recursion
+     * @param matchingWords the collection into which matches are
+     *                      collected
      */
-    public WildcardTrie() {
-        this(DEFAULT_WILDCARD);
+    void collectMatchingWords(
+            final Node startNode,
+            final SearchPattern pattern,
+            final char[] path,
+            final int index,
+            final Collection<String> matchingWords) {
+
+        // Skip the subtree if it holds no word of the right length.
+        if (!pattern.canMatchBelow(startNode, index)) {
+            return;
+        }
+
+        // Base case: we are done processing characters in the search
+        // term, so if we have found a complete word, just collect it.
+        if (pattern.length() == index) {
+            if (startNode.isCompleteWord()) {
+                matchingWords.add(new String(path));
+            }
+
+            return;
+        }
+
+        // We're not done processing characters, so continue the
+        // recursion for the next child, from this non-wildcard
+        // character.
+        if (pattern.isLiteral(index)) {
+            final char character = pattern.getLiteral(index);
+            final Node nextNode = startNode.getChild(character);
+
+            if (null != nextNode) {
+                path[index] = character;
+                collectMatchingWords(
+                    nextNode,
+                    pattern,
+                    path,
+                    index + 1,
+                    matchingWords
+                );
+            }
+
+            return;
+        }
+
+        // We're not done processing characters, and we got a wildcard.
+        // Get all matching words of this node's children.
+        for (int child = 0; child < startNode.getChildCount(); child++) {
+            final char character = startNode.getChildKey(child);
+
+            if (pattern.matches(index, character)) {
+                path[index] = character;
+                collectMatchingWords(
+                    startNode.getChildAt(child),
+                    pattern,
+                    path,
+                    index + 1,
+                    matchingWords
+                );
+            }
+        }
     }
 
     /**
-     * Adds a set of words to the trie.
+     * Gets an iterator over the complete words that match the given
+     * search term.
      *
-     * @param words the words to add to the trie. Each word must be
-     *              non-empty and may not contain a wildcard character.
+     * Unlike {@link #getMatchingWords(String)}, matches are found
+     * lazily, as the iterator is advanced, so the first result is
+     * available before the rest of the trie has been walked. Matches
+     * are yielded in ascending order. The trie must not be modified
+     * while the iterator is in use.
      *
-     * @throws RuntimeException
-     *         if any of the provided words cannot be added
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     *
+     * @return an iterator over the complete words which match the
+     *         search term; may be empty, if none match.
      */
-    public void addWords(final Set<String> words) {
-        if (null != words) {
-            words.forEach(word -> addWord(word));
+    public Iterator<String> matchingWordsIterator(final String searchTerm) {
+        final SearchPattern pattern = compile(searchTerm);
+
+        return null == pattern
+            ? Collections.emptyIterator()
+            : matchIterator(pattern);
+    }
+
+    /**
+     * Hands each complete word that matches the given search term, and
+     * the node at which it ends, to a visitor, in ascending order.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     * @param visitor receives each matching word and its node
+     */
+    void forEachMatch(
+            final String searchTerm,
+            final BiConsumer<String, Node> visitor) {
+
+        final SearchPattern pattern = compile(searchTerm);
+
+        if (null == pattern) {
+            return;
+        }
+
+        final AbstractMatchIterator iterator = matchIterator(pattern);
+
+        while (iterator.hasNext()) {
+            final String word = iterator.next();
+            visitor.accept(word, iterator.getNode());
         }
     }
 
     /**
-     * Adds a word to the trie.
+     * Starts a lazy walk for the words that match a search pattern.
      *
-     * @param word the word to add to the trie. Must be non-empty and
-     *             may not contain a wildcard character.
+     * @param pattern the compiled search term
+     *
+     * @return an iterator over the matching words
+     */
+    private AbstractMatchIterator matchIterator(final SearchPattern pattern) {
+        return pattern.hasGlob()
+            ? new GlobSearch(pattern).iterator(root)
+            : new MatchIterator(root, pattern);
+    }
+
+    /**
+     * Gets a sequential stream of the complete words that match the
+     * given search term. See {@link #matchingWordsIterator(String)}.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     *
+     * @return a lazily-evaluated stream of the complete words which
+     *         match the search term; may be empty, if none match.
+     */
+    public Stream<String> streamMatchingWords(final String searchTerm) {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                matchingWordsIterator(searchTerm),
+                Spliterator.DISTINCT | Spliterator.NONNULL
+                    | Spliterator.ORDERED | Spliterator.SORTED
+            ),
+            false
+        );
+    }
+
+    /**
+     * Gets the heaviest of the complete words that match the given
+     * search term, as weighted by {@link #addWord(String, long)}.
+     *
+     * Each node records the greatest weight below it, and the trie is
+     * searched best-first, so only the subtrees which might hold one
+     * of the top {@code k} words are opened: asking for the top ten
+     * completions of a prefix costs far less than finding all of the
+     * words which start with it. Words of equal weight are returned
+     * in ascending order.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     * @param k the most matching words to return
+     *
+     * @return at most {@code k} of the complete words which match the
+     *         search term, heaviest first; may be empty, if none
+     *         match.
      *
      * @throws RuntimeException
-     *         if the provided {@code word} cannot be added
+     *         if {@code k} is negative
      */
-    public void addWord(final String word) {
-        if (null == word || word.isEmpty()
-                || word.contains(String.valueOf(wildcard))) {
+    public List<String> getTopMatchingWords(
+            final String searchTerm,
+            final int k) {
 
+        if (k < 0) {
             throw new RuntimeException(
-                "Passed invalid word (" + word + ") to addWord()."
+                "Passed invalid k (" + k + ") to getTopMatchingWords()."
             );
         }
 
-        Node currentNode = root;
-
-        for (int index = 0; index < word.length(); index++) {
-            final Character currentChar = word.charAt(index);
-            final Map<Character, Node> children = currentNode.getChildren();
+        final SearchPattern pattern = compile(searchTerm);
 
-            if (!children.containsKey(currentChar)) {
-                children.put(currentChar, new Node(currentChar));
-            }
-            
-            currentNode = children.get(currentChar);
+        if (null == pattern || 0 == k) {
+            return new ArrayList<>();
         }
 
-        currentNode.setCompleteWord(true);
+        return new RankedSearch(pattern).getTopMatchingWords(root, k);
     }
 
     /**
-     * Checks if the specified search expression (including zero or more
-     * wildcard characters) matches one or more prefixes.
+     * Gets the set of complete words which a regular expression
+     * matches in full.
      *
-     * @param searchExpression the search expression to evaluate as
-     *                         potentially being mapped to one or more
-     *                         word prefixes.
+     * The expression is compiled into a deterministic automaton, which
+     * is stepped along each path of the trie as it is walked; a
+     * subtree is skipped as soon as the automaton can no longer reach
+     * a match, so words are never tested one by one. See {@link
+     * RegexNfa} for the syntax supported, a subset of {@link
+     * java.util.regex.Pattern}'s. The wildcard and glob have no
+     * special meaning in an expression.
      *
-     * @return true if a matching prefix exists; false, otherwise.
+     * @param regex the regular expression to match words against
+     *
+     * @return the set of complete words which match the expression;
+     *         may be empty, if none match.
+     *
+     * @throws RuntimeException
+     *         if {@code regex} is malformed
      */
-    public boolean isPrefix(final String prefix) {
-        /*
-         * A prefix isn't just anything that isn't a complete word.
-         * Consider "potato" and "potatos", both complete words.
-         * "potato" is a complete word AND a prefix, to "potatos".
-         */
-        for (final Node node : findNodes(prefix)) {
-            if (null != node && !node.getChildren().keySet().isEmpty()) {
-                return true;
-            }
+    public Set<String> getWordsMatchingRegex(final String regex) {
+        final Set<String> matchingWords = new HashSet<>();
+
+        if (null == regex) {
+            return matchingWords;
         }
 
-        return false;
+        final RegexDfa dfa = new RegexDfa(regex);
+
+        collectWordsMatchingRegex(
+            root, dfa, dfa.getStart(), new StringBuilder(), matchingWords
+        );
+
+        return matchingWords;
     }
 
     /**
-     * Checks if the specified search expression (including zero or more
-     * wildcard characters) matches one or more complete words.
-     *
-     * @param searchExpression the search expression to evaluate as
-     *                         potentially mapped to one or more
-     *                         complete words.
+     * Collects the complete words below a node which a regular
+     * expression matches.
      *
-     * @return true if there is at least one complete, matching word;
-     *         false, otherwise.
+     * @param startNode the node reached by {@code path}
+     * @param dfa the compiled expression
+     * @param state the state of {@code dfa} after reading {@code path}
+     * @param path the characters walked to reach {@code startNode}
+     * @param matchingWords the set into which matches are collected
      */
-    public boolean isWord(final String searchExpression) {
-        /*
-         * This says: "The collection of nodes (that end complete words)
-         * is not an empty collection."
-         */
-        return !findNodes(searchExpression).stream()
-            .filter(node -> node.isCompleteWord())
-            .collect(Collectors.toSet())
-            .isEmpty();
+    private void collectWordsMatchingRegex(
+            final Node startNode,
+            final RegexDfa dfa,
+            final int state,
+            final StringBuilder path,
+            final Set<String> matchingWords) {
+
+        if (dfa.isAccepting(state) && startNode.isCompleteWord()) {
+            matchingWords.add(path.toString());
+        }
+
+        final int depth = path.length();
+
+        for (int child = 0; child < startNode.getChildCount(); child++) {
+            final char character = startNode.getChildKey(child);
+            final int next = dfa.step(state, character);
+
+            if (RegexDfa.DEAD != next) {
+                path.append(character);
+                collectWordsMatchingRegex(
+                    startNode.getChildAt(child),
+                    dfa,
+                    next,
+                    path,
+                    matchingWords
+                );
+                path.setLength(depth);
+            }
+        }
     }
 
     /**
-     * Walks the Trie to find the collection of nodes reachable by a
-     * specified search term.
+     * Gets the set of complete words within a given Levenshtein
+     * distance of a term: those that can be turned into the term by at
+     * most {@code maxEdits} insertions, deletions and substitutions of
+     * single characters. A wildcard in the term may be substituted by
+     * any character at no cost; the glob and character classes have no
+     * special meaning.
+     *
+     * The trie is walked once, with a row of the edit-distance table
+     * computed for each node from its parent's row, so the work on a
+     * shared prefix is shared between all of the words below it. A
+     * subtree is skipped as soon as every entry of its row exceeds
+     * {@code maxEdits}, since no word below it can then be close
+     * enough.
      *
-     * @param searchTerm the term to lookup in the trie -- may contain
-     *                   zero or more wildcard characters.
+     * @param term the term to compare words to -- may contain zero or
+     *             more wildcard characters
+     * @param maxEdits the greatest number of edits allowed
      *
-     * @return the set of nodes reachable by the search term
+     * @return the set of complete words within {@code maxEdits} edits
+     *         of the term; may be empty, if there are none.
+     *
+     * @throws RuntimeException
+     *         if {@code maxEdits} is negative
      */
-    private Set<Node> findNodes(final String searchTerm) {
-        return findNodes(root, searchTerm, 0);
+    public Set<String> getWordsWithinDistance(
+            final String term,
+            final int maxEdits) {
+
+        if (maxEdits < 0) {
+            throw new RuntimeException(
+                "Passed invalid maxEdits (" + maxEdits
+                + ") to getWordsWithinDistance()."
+            );
+        }
+
+        final Set<String> matchingWords = new HashSet<>();
+
+        if (null == term || term.isEmpty()) {
+            return matchingWords;
+        }
+
+        // The row for the root: the distance from the empty string to
+        // each prefix of the term.
+        final int[] firstRow = new int[term.length() + 1];
+
+        for (int index = 0; index < firstRow.length; index++) {
+            firstRow[index] = index;
+        }
+
+        final List<int[]> rows = new ArrayList<>();
+        rows.add(firstRow);
+
+        collectWordsWithinDistance(
+            root, term, maxEdits, rows, new StringBuilder(), matchingWords
+        );
+
+        return matchingWords;
     }
 
     /**
-     * Walks the Trie to find the collection of nodes reachable by a
-     * specified search term.
+     * Collects the complete words below a node which are within a given
+     * distance of a term.
      *
-     * @param startNode the node from which to start the walk
-     * @param searchTerm the term we are using to search
-     * @param startIndex the index into the searchTerm for the current
-     *                   recursion
-     *
-     * @return The set of nodes reachable when walking the trie
-     *         according to the specified search term.
+     * @param startNode the node reached by {@code path}
+     * @param term the term to compare words to
+     * @param maxEdits the greatest number of edits allowed
+     * @param rows the rows of the edit-distance table, one for each
+     *             node on the path; rows past the end of the path are
+     *             reused as scratch space
+     * @param path the characters walked to reach {@code startNode}
+     * @param matchingWords the set into which matches are collected
      */
-    private Set<Node> findNodes(
+    private void collectWordsWithinDistance(
             final Node startNode,
-            final String string,
-            final int index) {
+            final String term,
+            final int maxEdits,
+            final List<int[]> rows,
+            final StringBuilder path,
+            final Set<String> matchingWords) {
 
-        final Set<Node> matchingNodes = new HashSet<>();
+        final int depth = path.length();
+        final int[] row = rows.get(depth);
 
-        if (startNode == null || string == null
-                || string.isEmpty() || index >= string.length()) {
-            return matchingNodes;
+        if (startNode.isCompleteWord() && row[term.length()] <= maxEdits) {
+            matchingWords.add(path.toString());
         }
 
-        final Character currentChar = string.charAt(index);
+        if (rows.size() == depth + 1) {
+            rows.add(new int[row.length]);
+        }
 
-        // Base case: there is one character remaining to process, so
-        // just do it.
-        if (string.length() - index == 1) {
-            if (wildcard.equals(currentChar)) {
-                matchingNodes.addAll(startNode.getChildren().values());
-            } else {
-                matchingNodes.add(startNode.getChildren().get(currentChar));
-            }
+        final int[] nextRow = rows.get(depth + 1);
 
-            return matchingNodes;
-        }
+        for (int child = 0; child < startNode.getChildCount(); child++) {
+            final char character = startNode.getChildKey(child);
+            int rowMinimum = nextRow[0] = row[0] + 1;
 
-        // Otherwise, more than one element left. So recurse.
-        if (!wildcard.equals(currentChar)) {
-            return findNodes(
-                startNode.getChildren().get(currentChar),
-                string,
-                index + 1
-            );
-        }
+            for (int index = 1; index < row.length; index++) {
+                final char termChar = term.charAt(index - 1);
+                final int substitution = termChar == character
+                    || (null != wildcard && wildcard == termChar) ? 0 : 1;
+
+                nextRow[index] = Math.min(
+                    row[index - 1] + substitution,
+                    Math.min(row[index], nextRow[index - 1]) + 1
+                );
+                rowMinimum = Math.min(rowMinimum, nextRow[index]);
+            }
 
-        // The character being processed is a wildcard. Find all nodes
-        // reachable by its children.
-        for (final Node nextNode : startNode.getChildren().values()) {
-            matchingNodes.addAll(findNodes(
-                nextNode,
-                string,
-                index + 1
-            ));
+            if (rowMinimum <= maxEdits) {
+                path.append(character);
+                collectWordsWithinDistance(
+                    startNode.getChildAt(child),
+                    term,
+                    maxEdits,
+                    rows,
+                    path,
+                    matchingWords
+                );
+                path.setLength(depth);
+            }
         }
+    }
 
-        return matchingNodes;
+    /**
+     * Gets the set of complete words which can be spelt with some of a
+     * set of tiles, each tile used at most once. A wildcard tile is a
+     * blank, which can stand for any character.
+     *
+     * The trie is walked with a count of the tiles left of each
+     * character: only the children whose character is still available
+     * (or, while a blank is left, any child) are visited, and a
+     * subtree is skipped when no word below it is short enough to be
+     * spelt with the tiles left.
+     *
+     * @param tiles the tiles, in any order -- may contain zero or more
+     *              wildcard characters
+     *
+     * @return the set of complete words which the tiles can spell; may
+     *         be empty, if there are none.
+     */
+    public Set<String> getWordsFromTiles(final String tiles) {
+        return getWordsFromTiles(tiles, false);
     }
 
     /**
-     * Gets the set of complete words that match the given search term.
+     * Gets the set of complete words which are anagrams of a set of
+     * tiles: those which use every tile exactly once. A wildcard tile
+     * is a blank, which can stand for any character. See {@link
+     * #getWordsFromTiles(String)}.
      *
-     * @param searchTerm the term to lookup -- may contain zero or more
-     *                   wildcard characters
+     * @param tiles the tiles, in any order -- may contain zero or more
+     *              wildcard characters
      *
-     * @return the set of complete words which match the search term;
-     *         may be empty, if none match.
+     * @return the set of complete words which use all of the tiles; may
+     *         be empty, if there are none.
      */
-    public Set<String> getMatchingWords(final String searchTerm) {
-        return getMatchingWords(root, searchTerm, "", 0);
+    public Set<String> getAnagrams(final String tiles) {
+        return getWordsFromTiles(tiles, true);
     }
 
     /**
-     * Gets the set of complete words that match the given search term.
+     * Gets the set of complete words which can be spelt with a set of
+     * tiles.
      *
-     * @param startNode the node at which to start the search
-     * @param searchTerm the term to lookup -- may contain zero or more
-     *                   wildcard characters
-     * @param prefix the valid prefix of a complete word being processed
-     * @param index the index into {@code searchTerm}, used during
-     *              recurion
+     * @param tiles the tiles, in any order
+     * @param allTiles whether a word must use every tile
+     *
+     * @return the set of complete words which the tiles can spell
      */
-    private Set<String> getMatchingWords(
-            final Node startNode,
-            final String searchTerm,
-            final String prefix,
-            final int index) {
+    private Set<String> getWordsFromTiles(
+            final String tiles,
+            final boolean allTiles) {
 
         final Set<String> matchingWords = new HashSet<>();
 
-        if (null == searchTerm || searchTerm.isEmpty()) {
+        if (null == tiles || tiles.isEmpty()) {
             return matchingWords;
         }
 
-        // Base case: we are done processing characters in the search
-        // term, so if we have found a complete word, just return it.
-        if (searchTerm.length() == index) {
-            if (startNode.isCompleteWord()) {
-                matchingWords.add(prefix);
+        // Tally the tiles: distinct letters in ascending order, with a
+        // count for each, and the number of blanks.
+        final char[] sorted = tiles.toCharArray();
+        Arrays.sort(sorted);
+
+        final char[] letters = new char[sorted.length];
+        final int[] counts = new int[sorted.length];
+        int letterCount = 0;
+        int blanks = 0;
+
+        for (final char tile : sorted) {
+            if (null != wildcard && wildcard == tile) {
+                blanks++;
+            } else if (0 != letterCount && letters[letterCount - 1] == tile) {
+                counts[letterCount - 1]++;
+            } else {
+                letters[letterCount] = tile;
+                counts[letterCount++] = 1;
             }
+        }
 
-            return matchingWords;
+        collectWordsFromTiles(
+            root,
+            Arrays.copyOf(letters, letterCount),
+            counts,
+            blanks,
+            new char[sorted.length],
+            0,
+            allTiles,
+            matchingWords
+        );
+
+        return matchingWords;
+    }
+
+    /**
+     * Collects the complete words below a node which can be finished
+     * with the tiles left.
+     *
+     * @param startNode the node reached by {@code path}
+     * @param letters the distinct letters of the tiles, in ascending
+     *                order
+     * @param counts the number of tiles left of each letter
+     * @param blanks the number of blanks left
+     * @param path the characters walked so far, in {@code [0, depth)}
+     * @param depth the number of tiles used so far
+     * @param allTiles whether a word must use every tile
+     * @param matchingWords the set into which matches are collected
+     */
+    private void collectWordsFromTiles(
+            final Node startNode,
+            final char[] letters,
+            final int[] counts,
+            final int blanks,
+            final char[] path,
+            final int depth,
+            final boolean allTiles,
+            final Set<String> matchingWords) {
+
+        final int remaining = path.length - depth;
+
+        if (startNode.isCompleteWord() && (!allTiles || 0 == remaining)) {
+            matchingWords.add(new String(path, 0, depth));
+        }
+
+        if (0 == remaining) {
+            return;
         }
 
-        final Character character = searchTerm.charAt(index);
+        // Without a blank, only the letters left are worth looking up.
+        if (0 == blanks) {
+            for (int letter = 0; letter < letters.length; letter++) {
+                if (0 == counts[letter]) {
+                    continue;
+                }
 
-        // We're not done processing characters, so continue the
-        // recursion for the next child, from this non-wildcard
-        // character.
-        if (!wildcard.equals(character)) {
-            if (startNode.getChildren().containsKey(character)) {
-                matchingWords.addAll(getMatchingWords(
-                    startNode.getChildren().get(character),
-                    searchTerm,
-                    prefix + character,
-                    index + 1
-                ));
+                final Node nextNode = startNode.getChild(letters[letter]);
+
+                if (null != nextNode
+                        && canFinish(nextNode, remaining - 1, allTiles)) {
+                    counts[letter]--;
+                    path[depth] = letters[letter];
+                    collectWordsFromTiles(
+                        nextNode, letters, counts, 0, path, depth + 1,
+                        allTiles, matchingWords
+                    );
+                    counts[letter]++;
+                }
             }
 
-            return matchingWords;
+            return;
         }
 
-        // We're not done processing characters, and we got a wildcard.
-        // Get all matching words of this node's children.
-        for (final Map.Entry<Character, Node> entry : startNode.getChildren().entrySet()) {
-            matchingWords.addAll(getMatchingWords(
-                entry.getValue(),
-                searchTerm,
-                prefix + entry.getKey(),
-                index + 1
-            ));
+        // With a blank left, every child can be reached; a real tile is
+        // used in preference to a blank whenever there is one.
+        for (int child = 0; child < startNode.getChildCount(); child++) {
+            final char character = startNode.getChildKey(child);
+            final Node nextNode = startNode.getChildAt(child);
+
+            if (!canFinish(nextNode, remaining - 1, allTiles)) {
+                continue;
+            }
+
+            final int letter = Arrays.binarySearch(letters, character);
+
+            path[depth] = character;
+
+            if (letter >= 0 && 0 != counts[letter]) {
+                counts[letter]--;
+                collectWordsFromTiles(
+                    nextNode, letters, counts, blanks, path, depth + 1,
+                    allTiles, matchingWords
+                );
+                counts[letter]++;
+            } else {
+                collectWordsFromTiles(
+                    nextNode, letters, counts, blanks - 1, path, depth + 1,
+                    allTiles, matchingWords
+                );
+            }
         }
+    }
 
-        return matchingWords;
+    /**
+     * Checks whether some word below a node can be finished with a
+     * given number of tiles, judging by word lengths alone.
+     *
+     * @param node the node reached
+     * @param remaining the number of tiles left
+     * @param allTiles whether a word must use every tile
+     *
+     * @return false if no word below {@code node} has a suitable
+     *         length; true, otherwise
+     */
+    private static boolean canFinish(
+            final Node node,
+            final int remaining,
+            final boolean allTiles) {
+
+        return allTiles
+            ? node.hasSuffixOfLength(remaining)
+            : node.hasSuffixNoLongerThan(remaining);
+    }
+
+    /**
+     * Compiles a search term against this trie's wildcard, glob and
+     * classes.
+     *
+     * @param searchTerm the term to compile
+     *
+     * @return the compiled pattern, or null if the search term is null
+     *         or empty
+     */
+    private SearchPattern compile(final String searchTerm) {
+        return SearchPattern.compile(searchTerm, wildcard, glob, classes);
     }
 
     /**
@@ -330,10 +1620,8 @@ public class WildcardTrie {
             final Node current = queue.remove();
             nodes.add(current);
 
-            for (final Node child : current.getChildren().values()) {
-                if (null != child) {
-                    queue.add(child);
-                }
+            for (int child = 0; child < current.getChildCount(); child++) {
+                queue.add(current.getChildAt(child));
             }
         }
 
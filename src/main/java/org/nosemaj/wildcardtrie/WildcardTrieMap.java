@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * WildcardTrieMap is a {@link WildcardTrie} which maps each of its words
+ * to a value.
+ *
+ * Values are held on the nodes at which their words end, so a search
+ * can return each matching word together with its value, without a
+ * separate map to look it up in. Keys are words, and follow the same
+ * rules as {@link WildcardTrie#addWord(String)}; a key may map to null.
+ * Words added with {@link #addWord(String)} are keys which map to null.
+ *
+ * @param <V> the type of the values
+ */
+public class WildcardTrieMap<V> extends WildcardTrie {
+
+    /**
+     * Constructs a new WildcardTrieMap.
+     *
+     * @param wildcard the character to use as a single-character glob;
+     *                 may be null
+     * @param glob the character to use as a zero-or-more character
+     *             glob; may be null
+     * @param classes whether to take {@code [} to open a character
+     *                class, and so reserve it
+     */
+    public WildcardTrieMap(
+            final Character wildcard,
+            final Character glob,
+            final boolean classes) {
+
+        super(wildcard, glob, classes);
+    }
+
+    /**
+     * Constructs a new WildcardTrieMap, without character classes.
+     *
+     * @param wildcard the character to use as a single-character glob;
+     *                 may be null
+     * @param glob the character to use as a zero-or-more character
+     *             glob; may be null
+     */
+    public WildcardTrieMap(final Character wildcard, final Character glob) {
+        super(wildcard, glob);
+    }
+
+    /**
+     * Constructs a new WildcardTrieMap, without a glob or
+     * character classes.
+     *
+     * @param wildcard the character to use as a single-character glob
+     */
+    public WildcardTrieMap(final Character wildcard) {
+        super(wildcard);
+    }
+
+    /**
+     * Constructs a new WildcardTrieMap, using the default wildcard
+     * character, without a glob or character classes.
+     */
+    public WildcardTrieMap() {
+        super();
+    }
+
+    /**
+     * Maps a word to a value, adding the word if need be.
+     *
+     * @param key the word. Must be non-empty and may not contain a
+     *            wildcard or glob character.
+     * @param value the value to map the word to; may be null
+     *
+     * @return the value the word mapped to before, or null if there
+     *         was none
+     *
+     * @throws RuntimeException
+     *         if the provided {@code key} cannot be added
+     */
+    public V put(final String key, final V value) {
+        final ValueNode<V> node = valueNode(insertWord(key, 0L));
+        final V previous = node.value;
+
+        node.value = value;
+
+        return previous;
+    }
+
+    /**
+     * Gets the value a word maps to. Every character of the word is
+     * taken literally.
+     *
+     * @param key the word to look up
+     *
+     * @return the value of the word, or null if the word is not a key
+     */
+    public V get(final String key) {
+        final Node node = findNode(key);
+
+        return null != node && node.isCompleteWord()
+            ? valueNode(node).value
+            : null;
+    }
+
+    /**
+     * Checks whether a word is a key. Every character of the word is
+     * taken literally.
+     *
+     * @param key the word to look up
+     *
+     * @return true if the word is a key; false, otherwise
+     */
+    public boolean containsKey(final String key) {
+        final Node node = findNode(key);
+
+        return null != node && node.isCompleteWord();
+    }
+
+    /**
+     * Removes a word and its value, unlinking the nodes which led only
+     * to it, as {@link #removeWord(String)} does.
+     *
+     * @param key the word to remove
+     *
+     * @return the value the word mapped to, or null if it was not a
+     *         key
+     */
+    public V remove(final String key) {
+        final Node node = findNode(key);
+
+        if (null == node || !node.isCompleteWord()) {
+            return null;
+        }
+
+        final V previous = valueNode(node).value;
+        removeWord(key);
+
+        return previous;
+    }
+
+    /**
+     * Gets the words that match the given search term, with their
+     * values.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     *
+     * @return a map of the matching words to their values; may be
+     *         empty, if none match.
+     */
+    public Map<String, V> getMatchingEntries(final String searchTerm) {
+        final Map<String, V> entries = new HashMap<>();
+
+        forEachMatchingEntry(searchTerm, entries::put);
+
+        return entries;
+    }
+
+    /**
+     * Hands each word that matches the given search term, with its
+     * value, to an action, in ascending order of word.
+     *
+     * @param searchTerm the term to lookup -- may contain zero or more
+     *                   wildcard or glob characters
+     * @param action receives each matching word and its value
+     */
+    public void forEachMatchingEntry(
+            final String searchTerm,
+            final BiConsumer<String, V> action) {
+
+        forEachMatch(
+            searchTerm,
+            (word, node) -> action.accept(word, valueNode(node).value)
+        );
+    }
+
+    @Override
+    Node newNode(final char character) {
+        return new ValueNode<V>(character);
+    }
+
+    @Override
+    void clearNode(final Node node) {
+        valueNode(node).value = null;
+    }
+
+    /**
+     * Casts a node of this trie to the type this trie creates.
+     *
+     * @param node a node other than the root
+     *
+     * @return {@code node}, as a value node
+     */
+    @SuppressWarnings("unchecked")
+    private ValueNode<V> valueNode(final Node node) {
+        return (ValueNode<V>) node;
+    }
+
+    /**
+     * A node which holds the value of the word it completes.
+     *
+     * @param <V> the type of the value
+     */
+    private static final class ValueNode<V> extends Node {
+        private V value;
+
+        /**
+         * Construct a new ValueNode corresponding to a given character.
+         *
+         * @param character the character this node represents
+         */
+        ValueNode(final char character) {
+            super(character);
+        }
+    }
+}
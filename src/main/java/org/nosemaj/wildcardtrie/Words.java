@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+/**
+ * Checks the words added to the tries of this package.
+ */
+final class Words {
+    /**
+     * The wildcard used by the constructors which do not take one.
+     */
+    static final Character DEFAULT_WILDCARD = '*';
+
+    private Words() {
+    }
+
+    /**
+     * Checks whether a word may be added to a trie: that it is
+     * non-empty, and contains none of the characters which a search
+     * term gives a special meaning.
+     *
+     * @param word the word to check; may be null
+     * @param reserved the characters the word may not contain; any of
+     *                 them may be null, for a character which is not
+     *                 in use
+     *
+     * @return true if the word may be added; false, otherwise
+     */
+    static boolean isValid(final String word, final Character... reserved) {
+        if (null == word || word.isEmpty()) {
+            return false;
+        }
+
+        for (final Character character : reserved) {
+            if (null != character && word.indexOf(character) >= 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks that a word may be added to a trie.
+     *
+     * @param word the word to check; may be null
+     * @param reserved the characters the word may not contain; any of
+     *                 them may be null, for a character which is not
+     *                 in use
+     *
+     * @throws RuntimeException
+     *         if the provided {@code word} cannot be added
+     */
+    static void check(final String word, final Character... reserved) {
+        if (!isValid(word, reserved)) {
+            throw new RuntimeException(
+                "Passed invalid word (" + word + ") to addWord()."
+            );
+        }
+    }
+}
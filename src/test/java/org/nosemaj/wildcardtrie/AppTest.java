@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Test the App class.
+ */
+public class AppTest {
+    /**
+     * A folder for the dictionary files, removed after each test.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test that the lines of a dictionary file which are not valid
+     * words are skipped, and the rest are loaded.
+     *
+     * @throws IOException if the dictionary file cannot be written
+     */
+    @Test
+    public void testLoadTrieSkipsInvalidLines() throws IOException {
+        final File dictionary = folder.newFile("words");
+        Files.write(
+            dictionary.toPath(),
+            ImmutableList.of("fun", "", "f*n", "fund", "100%", "farm"),
+            StandardCharsets.UTF_8
+        );
+
+        final WildcardTrie trie = new WildcardTrie();
+        App.loadTrie(trie, dictionary.getPath());
+
+        assertEquals(
+            ImmutableSet.of("fun", "fund", "100%", "farm"),
+            trie.getWordsMatchingRegex(".*")
+        );
+    }
+
+    /**
+     * Test that a trie with a glob skips the lines which contain it.
+     *
+     * @throws IOException if the dictionary file cannot be written
+     */
+    @Test
+    public void testLoadTrieSkipsGlobLines() throws IOException {
+        final File dictionary = folder.newFile("words");
+        Files.write(
+            dictionary.toPath(),
+            ImmutableList.of("fun", "100%", "farm"),
+            StandardCharsets.UTF_8
+        );
+
+        final WildcardTrie trie = new WildcardTrie('*', '%');
+        App.loadTrie(trie, dictionary.getPath());
+
+        assertEquals(
+            ImmutableSet.of("fun", "farm"),
+            trie.getMatchingWords("%")
+        );
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+
+/**
+ * Test the BidirectionalWildcardTrie class.
+ */
+public class BidirectionalWildcardTrieTest {
+    private static final Set<String> EXPECTED_TEST_WORDS = ImmutableSet.of(
+        "fun",
+        "fund",
+        "funds",
+        "funding",
+        "farm",
+        "farming",
+        "tunafish",
+        "crowdfunding",
+        "fun farm"
+    );
+
+    private static final Set<String> SEARCH_TERMS = ImmutableSet.of(
+        "fun", "f***", "*un", "f*n*", "****", "*******", "fun*", "*",
+        "*unafish", "***ding", "*****ing", "*a*m", "fun ***m", "zzz"
+    );
+
+    private BidirectionalWildcardTrie testObject;
+    private WildcardTrie referenceTrie;
+
+    /**
+     * Sets up the object under test, and a plain trie to check it
+     * against.
+     */
+    @Before
+    public void setup() {
+        testObject = new BidirectionalWildcardTrie();
+        testObject.addWords(EXPECTED_TEST_WORDS);
+
+        referenceTrie = new WildcardTrie();
+        referenceTrie.addWords(EXPECTED_TEST_WORDS);
+    }
+
+    /**
+     * Test that every search agrees with the plain trie, whichever way
+     * it is planned.
+     */
+    @Test
+    public void testAgreesWithWildcardTrie() {
+        SearchAgreement.assertAgrees(
+            referenceTrie,
+            SEARCH_TERMS,
+            testObject::getMatchingWords,
+            testObject::countMatchingWords,
+            testObject::isWord,
+            testObject::isPrefix
+        );
+    }
+
+    /**
+     * Test that the planner walks whichever way sees more literals
+     * first.
+     */
+    @Test
+    public void testWalksReverse() {
+        assertTrue(testObject.walksReverse("***ing"));
+        assertTrue(testObject.walksReverse("*oor"));
+        assertTrue(testObject.walksReverse("f**ing"));
+        assertFalse(testObject.walksReverse("fun***"));
+        assertFalse(testObject.walksReverse("fu**ng"));
+        assertFalse(testObject.walksReverse("f*n"));
+        assertFalse(testObject.walksReverse("funding"));
+        assertFalse(testObject.walksReverse(null));
+        assertTrue(testObject.walksReverse("*[ing"));
+        assertFalse(testObject.walksReverse("%abc"));
+    }
+
+    /**
+     * Test that the planner counts the glob, like the wildcard, as
+     * other than a literal, and that glob searches agree with a plain
+     * trie whichever way they are planned.
+     */
+    @Test
+    public void testGlob() {
+        final BidirectionalWildcardTrie trie =
+            new BidirectionalWildcardTrie('*', '%');
+        trie.addWords(EXPECTED_TEST_WORDS);
+
+        final WildcardTrie globTrie = new WildcardTrie('*', '%');
+        globTrie.addWords(EXPECTED_TEST_WORDS);
+
+        assertTrue(trie.walksReverse("%abc"));
+        assertTrue(trie.walksReverse("f%ing"));
+        assertTrue(trie.walksReverse("%a*ing"));
+        assertFalse(trie.walksReverse("fun%"));
+        assertFalse(trie.walksReverse("fu%d%g"));
+
+        SearchAgreement.assertAgrees(
+            globTrie,
+            ImmutableSet.of("%", "%ing", "f%ing", "%und%", "%a%h", "fun%",
+                "*%ding", "%m", "z%"),
+            trie::getMatchingWords,
+            trie::countMatchingWords,
+            trie::isWord,
+            trie::isPrefix
+        );
+    }
+
+    /**
+     * Test that null and empty search terms match nothing.
+     */
+    @Test
+    public void testNullAndEmpty() {
+        assertFalse(testObject.isWord(null));
+        assertFalse(testObject.isPrefix(""));
+        assertTrue(testObject.getMatchingWords(null).isEmpty());
+        assertEquals(0, testObject.countMatchingWords(""));
+    }
+
+    /**
+     * Test that adding a word with a wildcard in it throws a
+     * RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testAddWordWildcard() {
+        testObject.addWord("f*n");
+    }
+
+    /**
+     * Test that a removed word is gone from searches in both
+     * directions.
+     */
+    @Test
+    public void testRemoveWord() {
+        assertTrue(testObject.removeWord("funding"));
+        assertFalse(testObject.removeWord("funding"));
+
+        assertEquals(
+            ImmutableSet.of("crowdfunding"),
+            testObject.getMatchingWords("*****funding")
+        );
+        assertFalse(testObject.isWord("funding"));
+        assertEquals(
+            ImmutableSet.of("farming"),
+            testObject.getMatchingWords("****ing")
+        );
+    }
+}
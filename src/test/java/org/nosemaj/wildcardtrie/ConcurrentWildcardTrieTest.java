@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Test the ConcurrentWildcardTrie class.
+ */
+public class ConcurrentWildcardTrieTest {
+    private static final Set<String> EXPECTED_TEST_WORDS = ImmutableSet.of(
+        "fun",
+        "fund",
+        "funds",
+        "funding",
+        "farm",
+        "tunafish",
+        "crowdfunding",
+        "fun farm"
+    );
+
+    private static final Set<String> SEARCH_TERMS = ImmutableSet.of(
+        "f", "fu", "fun", "fund", "funds", "f***", "*un", "f*n*", "****",
+        "*******", "fun*", "*", "tunafis*", "*unafish", "fun ***m", "zzz"
+    );
+
+    private static final int THREADS = 4;
+    private static final int WORDS_PER_THREAD = 2000;
+
+    private ConcurrentWildcardTrie testObject;
+    private WildcardTrie referenceTrie;
+
+    /**
+     * Sets up the object under test, and a plain trie to check it
+     * against.
+     */
+    @Before
+    public void setup() {
+        testObject = new ConcurrentWildcardTrie();
+        testObject.addWords(EXPECTED_TEST_WORDS);
+
+        referenceTrie = new WildcardTrie();
+        referenceTrie.addWords(EXPECTED_TEST_WORDS);
+    }
+
+    /**
+     * Test that every search agrees with the plain trie.
+     */
+    @Test
+    public void testAgreesWithWildcardTrie() {
+        SearchAgreement.assertAgrees(
+            referenceTrie,
+            SEARCH_TERMS,
+            testObject::getMatchingWords,
+            testObject::countMatchingWords,
+            testObject::isWord,
+            testObject::isPrefix
+        );
+
+        assertEquals(referenceTrie.getNodeCount(), testObject.getNodeCount());
+    }
+
+    /**
+     * Test that words added from many threads at once, with shared
+     * prefixes, are all kept, and that a word once seen by a reader is
+     * never lost again.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test(timeout = 30000)
+    public void testConcurrentAddWord() throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean lost = new AtomicBoolean(false);
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            final int offset = thread;
+
+            threads.add(new Thread(() -> {
+                await(start);
+
+                for (int word = 0; word < WORDS_PER_THREAD; word++) {
+                    final String added = word(word * THREADS + offset);
+                    testObject.addWord(added);
+
+                    if (!testObject.isWord(added)) {
+                        lost.set(true);
+                    }
+                }
+            }));
+        }
+
+        threads.add(new Thread(() -> {
+            await(start);
+            int seen = 0;
+
+            while (seen < THREADS * WORDS_PER_THREAD) {
+                final int count = testObject.countMatchingWords("w*****");
+
+                if (count < seen) {
+                    lost.set(true);
+                }
+
+                seen = Math.max(seen, count);
+            }
+        }));
+
+        threads.forEach(Thread::start);
+        start.countDown();
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertFalse(lost.get());
+
+        for (int word = 0; word < THREADS * WORDS_PER_THREAD; word++) {
+            referenceTrie.addWord(word(word));
+            assertTrue(testObject.isWord(word(word)));
+        }
+
+        assertEquals(referenceTrie.getNodeCount(), testObject.getNodeCount());
+    }
+
+    /**
+     * Test that null and empty search terms match nothing.
+     */
+    @Test
+    public void testNullAndEmpty() {
+        assertFalse(testObject.isWord(null));
+        assertFalse(testObject.isPrefix(""));
+        assertTrue(testObject.getMatchingWords(null).isEmpty());
+        assertEquals(0, testObject.countMatchingWords(""));
+    }
+
+    /**
+     * Test that adding a word with a wildcard in it throws a
+     * RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testAddWordWildcard() {
+        testObject.addWord("f*n");
+    }
+
+    /**
+     * Spells a number as a six-character word, so that consecutive
+     * numbers share long prefixes.
+     *
+     * @param number the number, less than 26 to the fifth power
+     *
+     * @return a word starting with "w"
+     */
+    private static String word(final int number) {
+        final char[] characters = new char[6];
+        int rest = number;
+
+        characters[0] = 'w';
+
+        for (int index = characters.length - 1; index > 0; index--) {
+            characters[index] = (char) ('a' + rest % 26);
+            rest /= 26;
+        }
+
+        return new String(characters);
+    }
+
+    /**
+     * Waits for a latch to open, without throwing.
+     *
+     * @param latch the latch to wait for
+     */
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Test that a trie with no wildcard takes words which contain the
+     * text "null".
+     */
+    @Test
+    public void testNullWildcard() {
+        final ConcurrentWildcardTrie trie = new ConcurrentWildcardTrie(null);
+        trie.addWord("nullify");
+
+        assertTrue(trie.isWord("nullify"));
+    }
+}
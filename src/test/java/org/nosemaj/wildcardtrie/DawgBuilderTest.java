@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Test the DawgBuilder class.
+ */
+public class DawgBuilderTest {
+    private static final Set<String> EXPECTED_TEST_WORDS = ImmutableSet.of(
+        "fun",
+        "fund",
+        "funds",
+        "funding",
+        "farm",
+        "farming",
+        "farms",
+        "tunafish",
+        "crowdfunding",
+        "fun farm"
+    );
+
+    private static final Set<String> SEARCH_TERMS = ImmutableSet.of(
+        "f", "fu", "fun", "fund", "funds", "f***", "*un", "f*n*", "****",
+        "*******", "fun*", "*", "tunafis*", "*unafish", "fun ***m",
+        "***ming", "****s", "zzz", "f[aeiou]n", "[^f]***", "***[ms]",
+        "far[^m]", "[a-f]*n*"
+    );
+
+    /**
+     * Test that every search agrees with a plain trie of the same
+     * words.
+     */
+    @Test
+    public void testAgreesWithWildcardTrie() {
+        final WildcardTrie referenceTrie = new WildcardTrie('*', null, true);
+        referenceTrie.addWords(EXPECTED_TEST_WORDS);
+
+        final FrozenWildcardTrie dawg = new DawgBuilder('*', true)
+            .addWords(new TreeSet<>(EXPECTED_TEST_WORDS).iterator())
+            .build();
+
+        SearchAgreement.assertAgrees(
+            referenceTrie,
+            SEARCH_TERMS,
+            dawg::getMatchingWords,
+            dawg::countMatchingWords,
+            dawg::isWord,
+            dawg::isPrefix
+        );
+    }
+
+    /**
+     * Test that common suffixes are shared. "walking" and "talking"
+     * differ only in their first character, so after the root they
+     * share every node.
+     */
+    @Test
+    public void testSharesSuffixes() {
+        final List<String> words = ImmutableList.of(
+            "talk", "talking", "walk", "walking"
+        );
+
+        final WildcardTrie trie = new WildcardTrie();
+        trie.addWords(ImmutableSet.copyOf(words));
+
+        final FrozenWildcardTrie dawg = new DawgBuilder()
+            .addWords(words.iterator())
+            .build();
+
+        assertEquals(1 + 2 * 7, trie.getNodeCount());
+        assertEquals(1 + 7, dawg.getNodeCount());
+        assertEquals(ImmutableSet.of("talk", "walk"), dawg.getMatchingWords("*alk"));
+    }
+
+    /**
+     * Test that a repeated word is accepted, and counted once.
+     */
+    @Test
+    public void testRepeatedWord() {
+        final FrozenWildcardTrie dawg = new DawgBuilder()
+            .addWord("fun")
+            .addWord("fun")
+            .build();
+
+        assertEquals(1, dawg.countMatchingWords("***"));
+    }
+
+    /**
+     * Test that an out-of-order word throws a RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testAddWordOutOfOrder() {
+        new DawgBuilder().addWord("fund").addWord("fun");
+    }
+
+    /**
+     * Test that a word with a wildcard in it throws a RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testAddWordWildcard() {
+        new DawgBuilder().addWord("f*n");
+    }
+
+    /**
+     * Test that adding a word after building throws a RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testAddWordAfterBuild() {
+        final DawgBuilder builder = new DawgBuilder().addWord("fun");
+        builder.build();
+        builder.addWord("fund");
+    }
+
+    /**
+     * Test that an empty graph matches nothing.
+     */
+    @Test
+    public void testEmpty() {
+        final FrozenWildcardTrie dawg = new DawgBuilder().build();
+
+        assertFalse(dawg.isPrefix("*"));
+        assertTrue(dawg.getMatchingWords("*").isEmpty());
+    }
+
+    /**
+     * Test that a graph with no wildcard takes words which contain the
+     * text "null".
+     */
+    @Test
+    public void testNullWildcard() {
+        final FrozenWildcardTrie dawg = new DawgBuilder(null)
+            .addWord("annulled")
+            .addWord("nullify")
+            .build();
+
+        assertTrue(dawg.isWord("annulled"));
+        assertTrue(dawg.isWord("nullify"));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+
+/**
+ * Test the FrozenWildcardTrie class.
+ */
+public class FrozenWildcardTrieTest {
+    private static final Set<String> EXPECTED_TEST_WORDS = ImmutableSet.of(
+        "fun",
+        "fund",
+        "funds",
+        "funding",
+        "farm",
+        "tunafish",
+        "crowdfunding",
+        "fun farm"
+    );
+
+    private static final Set<String> SEARCH_TERMS = ImmutableSet.of(
+        "f", "fu", "fun", "fund", "funds", "f***", "*un", "f*n*", "****",
+        "*******", "fun*", "*", "tunafis*", "*unafish", "fun ***m", "zzz",
+        "f%n", "%", "fun%", "%fund%", "%ing", "f%*m", "%a%f%", "%z%",
+        "f[aeiou]n", "[^f]%", "[a-z][a-z][a-z]", "f[u-]nd", "%[^a-z]%"
+    );
+
+    private WildcardTrie referenceTrie;
+    private FrozenWildcardTrie testObject;
+
+    /**
+     * Sets up the object under test, frozen from a plain trie which is
+     * kept to check it against.
+     */
+    @Before
+    public void setup() {
+        referenceTrie = new WildcardTrie('*', '%', true);
+        referenceTrie.addWords(EXPECTED_TEST_WORDS);
+
+        testObject = referenceTrie.freeze();
+    }
+
+    /**
+     * Test that every search agrees with the plain trie.
+     */
+    @Test
+    public void testAgreesWithWildcardTrie() {
+        SearchAgreement.assertAgrees(
+            referenceTrie,
+            SEARCH_TERMS,
+            testObject::getMatchingWords,
+            testObject::countMatchingWords,
+            testObject::isWord,
+            testObject::isPrefix
+        );
+    }
+
+    /**
+     * Test that the glob matches runs of any length in the frozen copy.
+     */
+    @Test
+    public void testGlob() {
+        assertEquals(
+            ImmutableSet.of("fun"),
+            testObject.getMatchingWords("f%n")
+        );
+        assertEquals(
+            ImmutableSet.of("funding", "crowdfunding"),
+            testObject.getMatchingWords("%fund%ing")
+        );
+        assertEquals(8, testObject.countMatchingWords("%"));
+        assertTrue(testObject.isPrefix("tuna%"));
+        assertFalse(testObject.isWord("%z%"));
+    }
+
+    /**
+     * Test that character classes match sets of characters in the
+     * frozen copy, rather than their brackets.
+     */
+    @Test
+    public void testCharacterClasses() {
+        assertEquals(
+            ImmutableSet.of("fun"),
+            testObject.getMatchingWords("f[aeiou]n")
+        );
+        assertEquals(
+            ImmutableSet.of("farm"),
+            testObject.getMatchingWords("f[^u]**")
+        );
+        assertEquals(2, testObject.countMatchingWords("[ct]%"));
+        assertTrue(testObject.isPrefix("fun[ d]"));
+        assertFalse(testObject.isWord("[xyz]%"));
+    }
+
+    /**
+     * Test that the frozen copy has one node per node of the trie.
+     */
+    @Test
+    public void testNodeCount() {
+        assertEquals(
+            referenceTrie.getNodeCount(),
+            testObject.getNodeCount()
+        );
+    }
+
+    /**
+     * Test that words added after freezing do not appear in the copy.
+     */
+    @Test
+    public void testFrozenCopyIsUnaffectedByLaterAdds() {
+        referenceTrie.addWord("tuna");
+
+        assertTrue(referenceTrie.isWord("tuna"));
+        assertFalse(testObject.isWord("tuna"));
+    }
+
+    /**
+     * Test that an empty trie freezes to one that matches nothing.
+     */
+    @Test
+    public void testFreezeEmptyTrie() {
+        final FrozenWildcardTrie frozen = new WildcardTrie('*', '%').freeze();
+
+        assertEquals(1, frozen.getNodeCount());
+        assertTrue(frozen.getMatchingWords("*").isEmpty());
+        assertFalse(frozen.isPrefix("*"));
+    }
+
+    /**
+     * Test that null and empty search terms match nothing.
+     */
+    @Test
+    public void testNullAndEmpty() {
+        assertFalse(testObject.isWord(null));
+        assertFalse(testObject.isPrefix(""));
+        assertTrue(testObject.getMatchingWords(null).isEmpty());
+        assertEquals(0, testObject.countMatchingWords(""));
+    }
+}
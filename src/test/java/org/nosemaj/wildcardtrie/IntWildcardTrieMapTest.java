@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test the IntWildcardTrieMap class.
+ */
+public class IntWildcardTrieMapTest {
+    private IntWildcardTrieMap testObject;
+
+    /**
+     * Sets up the object under test.
+     */
+    @Before
+    public void setup() {
+        testObject = new IntWildcardTrieMap('*', '%');
+
+        testObject.put("fun", 1);
+        testObject.put("fund", 2);
+        testObject.put("farm", 3);
+    }
+
+    /**
+     * Test that values can be read back, with a default for non-keys.
+     */
+    @Test
+    public void testGetOrDefault() {
+        assertEquals(1, testObject.getOrDefault("fun", -1));
+        assertEquals(2, testObject.getOrDefault("fund", -1));
+        assertEquals(-1, testObject.getOrDefault("fu", -1));
+        assertEquals(-1, testObject.getOrDefault("f*n", -1));
+        assertTrue(testObject.containsKey("farm"));
+        assertFalse(testObject.containsKey("far"));
+    }
+
+    /**
+     * Test that counters can be kept with addTo().
+     */
+    @Test
+    public void testAddTo() {
+        assertEquals(5, testObject.addTo("fun", 4));
+        assertEquals(1, testObject.addTo("funds", 1));
+        assertEquals(2, testObject.addTo("funds", 1));
+        assertEquals(2, testObject.getOrDefault("funds", -1));
+    }
+
+    /**
+     * Test that a removed key is no longer a word.
+     */
+    @Test
+    public void testRemove() {
+        assertTrue(testObject.remove("fun"));
+        assertFalse(testObject.remove("fun"));
+        assertFalse(testObject.isWord("fun"));
+        assertEquals(-1, testObject.getOrDefault("fun", -1));
+        assertEquals(2, testObject.getOrDefault("fund", -1));
+    }
+
+    /**
+     * Test that a key removed as a word does not bring its old value back
+     * when it is added again, though longer keys keep its node alive.
+     */
+    @Test
+    public void testRemoveWordThenAddWord() {
+        assertTrue(testObject.removeWord("fun"));
+        testObject.addWord("fun");
+
+        assertTrue(testObject.containsKey("fun"));
+        assertEquals(0, testObject.getOrDefault("fun", -1));
+        assertEquals(2, testObject.getOrDefault("fund", -1));
+    }
+
+    /**
+     * Test that matching entries carry the right values.
+     */
+    @Test
+    public void testForEachMatchingEntry() {
+        final Map<String, Integer> visited = new HashMap<>();
+
+        testObject.forEachMatchingEntry("f%", visited::put);
+
+        assertEquals(ImmutableMap.of("fun", 1, "fund", 2, "farm", 3), visited);
+    }
+}
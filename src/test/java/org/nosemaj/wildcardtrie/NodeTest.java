@@ -19,6 +19,8 @@ package org.nosemaj.wildcardtrie;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableSet;
@@ -27,6 +29,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
@@ -92,6 +95,22 @@ public class NodeTest {
         );
     }
 
+    /**
+     * Test that a root, and a copy of it, represents no character.
+     */
+    @Test
+    public void testRootHasNoCharacter() {
+        final Node root = new Node();
+
+        assertNull(root.getCharacter());
+        assertNull(root.copy().getCharacter());
+        assertEquals(
+            Character.valueOf('\0'),
+            new Node('\0').getCharacter()
+        );
+        assertEquals("[null ->]", root.toString());
+    }
+
     /**
      * Test the getting and setting of the completeWord field.
      */
@@ -142,5 +161,291 @@ public class NodeTest {
             testObject.getChildren().values().contains(null)
         );
     }
-}
 
+    /**
+     * Test that removing children through the map view, or through
+     * its collections, removes them from the node.
+     */
+    @Test
+    public void testChildrenViewRemove() {
+        for (final char key : "abcde".toCharArray()) {
+            testObject.putChild(key, new Node(key));
+        }
+
+        final Map<Character, Node> children = testObject.getChildren();
+
+        assertEquals(
+            Character.valueOf('b'),
+            children.remove('b').getCharacter()
+        );
+        assertNull(children.remove('b'));
+        assertNull(children.remove("c"));
+        assertTrue(children.keySet().remove('d'));
+
+        final Iterator<Node> iterator = children.values().iterator();
+        assertEquals(Character.valueOf('a'), iterator.next().getCharacter());
+        iterator.remove();
+        assertEquals(Character.valueOf('c'), iterator.next().getCharacter());
+
+        assertEquals(2, testObject.getChildCount());
+        assertEquals('c', testObject.getChildKey(0));
+        assertEquals('e', testObject.getChildKey(1));
+        assertNull(testObject.getChild('a'));
+
+        children.clear();
+
+        assertEquals(0, testObject.getChildCount());
+        assertTrue(children.isEmpty());
+    }
+
+    /**
+     * Test that children added out of order are kept in ascending
+     * order, and found again by character.
+     */
+    @Test
+    public void testPutChildKeepsChildrenSorted() {
+        final String characters = "qzamb";
+
+        for (int index = 0; index < characters.length(); index++) {
+            final char key = characters.charAt(index);
+            assertNull(testObject.putChild(key, new Node(key)));
+        }
+
+        assertEquals(characters.length(), testObject.getChildCount());
+
+        for (int index = 1; index < testObject.getChildCount(); index++) {
+            assertTrue(
+                testObject.getChildKey(index - 1)
+                    < testObject.getChildKey(index)
+            );
+        }
+
+        for (int index = 0; index < characters.length(); index++) {
+            final char key = characters.charAt(index);
+
+            assertEquals(
+                Character.valueOf(key),
+                testObject.getChild(key).getCharacter()
+            );
+        }
+
+        assertNull(testObject.getChild('c'));
+    }
+
+    /**
+     * Test that putting a child for an existing character replaces it.
+     */
+    @Test
+    public void testPutChildReplaces() {
+        final Node first = new Node('a');
+        final Node second = new Node('a');
+
+        testObject.putChild('a', first);
+
+        assertEquals(first, testObject.putChild('a', second));
+        assertEquals(second, testObject.getChild('a'));
+        assertEquals(1, testObject.getChildCount());
+    }
+
+    /**
+     * Test the recording of the lengths of suffixes below a node.
+     */
+    @Test
+    public void testSuffixLengths() {
+        assertFalse(testObject.hasSuffixOfLength(0));
+        assertFalse(testObject.hasSuffixLongerThan(0));
+
+        testObject.addSuffixLength(3);
+
+        assertTrue(testObject.hasSuffixOfLength(3));
+        assertFalse(testObject.hasSuffixOfLength(2));
+        assertTrue(testObject.hasSuffixLongerThan(2));
+        assertFalse(testObject.hasSuffixLongerThan(3));
+
+        testObject.setCompleteWord(true);
+
+        assertTrue(testObject.hasSuffixOfLength(0));
+    }
+
+    /**
+     * Test that very long suffixes are recorded conservatively: a
+     * check for any long length may pass, but never wrongly fails.
+     */
+    @Test
+    public void testLongSuffixLengths() {
+        testObject.addSuffixLength(100);
+
+        assertTrue(testObject.hasSuffixOfLength(100));
+        assertTrue(testObject.hasSuffixOfLength(70));
+        assertFalse(testObject.hasSuffixOfLength(62));
+        assertTrue(testObject.hasSuffixLongerThan(62));
+        assertTrue(testObject.hasSuffixLongerThan(99));
+        assertFalse(testObject.hasSuffixNoLongerThan(62));
+        assertTrue(testObject.hasSuffixNoLongerThan(100));
+    }
+
+    /**
+     * Test the check for suffixes of at most a given length.
+     */
+    @Test
+    public void testSuffixNoLongerThan() {
+        assertFalse(testObject.hasSuffixNoLongerThan(10));
+
+        testObject.addSuffixLength(3);
+
+        assertFalse(testObject.hasSuffixNoLongerThan(-1));
+        assertFalse(testObject.hasSuffixNoLongerThan(2));
+        assertTrue(testObject.hasSuffixNoLongerThan(3));
+        assertTrue(testObject.hasSuffixNoLongerThan(62));
+    }
+
+    /**
+     * Test that the greatest weight below a node can be raised, and
+     * worked out again after a weight is lowered.
+     */
+    @Test
+    public void testMaxWeight() {
+        final Node child = new Node('a');
+        child.setCompleteWord(true);
+        child.setWeight(5);
+        testObject.putChild('a', child);
+        testObject.raiseMaxWeight(5);
+
+        assertEquals(5, testObject.getMaxWeight());
+        assertFalse(testObject.recomputeMaxWeight());
+
+        child.setWeight(2);
+
+        assertEquals(5, child.getMaxWeight());
+        assertTrue(child.recomputeMaxWeight());
+        assertEquals(2, child.getMaxWeight());
+        assertTrue(testObject.recomputeMaxWeight());
+        assertEquals(2, testObject.getMaxWeight());
+    }
+
+    /**
+     * Test that children can be removed, and the rest stay in order.
+     */
+    @Test
+    public void testRemoveChild() {
+        final String keys = "edcba";
+
+        for (final char key : keys.toCharArray()) {
+            testObject.putChild(key, new Node(key));
+        }
+
+        assertEquals(Character.valueOf('c'),
+            testObject.removeChild('c').getCharacter());
+        assertNull(testObject.removeChild('c'));
+        assertEquals(4, testObject.getChildCount());
+        assertEquals('a', testObject.getChildKey(0));
+        assertEquals('d', testObject.getChildKey(2));
+        assertEquals('e', testObject.getChildAt(3).getCharacter().charValue());
+
+        for (final char key : "abde".toCharArray()) {
+            assertNotNull(testObject.removeChild(key));
+        }
+
+        assertEquals(0, testObject.getChildCount());
+        assertNull(testObject.getChild('a'));
+    }
+
+    /**
+     * Test that suffix lengths are worked out again from the children,
+     * including those which share the top bit.
+     */
+    @Test
+    public void testRecomputeSuffixLengths() {
+        final Node child = new Node('a');
+        child.addSuffixLength(2);
+        child.addSuffixLength(70);
+        testObject.putChild('a', child);
+        testObject.addSuffixLength(1);
+        testObject.addSuffixLength(3);
+
+        assertTrue(testObject.recomputeSuffixLengths());
+        assertFalse(testObject.hasSuffixOfLength(1));
+        assertTrue(testObject.hasSuffixOfLength(3));
+        assertTrue(testObject.hasSuffixOfLength(80));
+        assertFalse(testObject.recomputeSuffixLengths());
+
+        testObject.removeChild('a');
+
+        assertTrue(testObject.recomputeSuffixLengths());
+        assertFalse(testObject.hasSuffixNoLongerThan(100));
+    }
+
+    /**
+     * Test that the word count is worked out again from this node's
+     * word and its children's counts.
+     */
+    @Test
+    public void testRecomputeWordCount() {
+        final Node child = new Node('a');
+        child.addToWordCount(2);
+        testObject.putChild('a', child);
+        testObject.putChild('b', new Node('b'));
+
+        assertEquals(0, testObject.getWordCount());
+        assertTrue(testObject.recomputeWordCount());
+        assertEquals(2, testObject.getWordCount());
+
+        testObject.setCompleteWord(true);
+
+        assertTrue(testObject.recomputeWordCount());
+        assertEquals(3, testObject.getWordCount());
+        assertFalse(testObject.recomputeWordCount());
+    }
+
+    /**
+     * Test that a copy shares the children, but not the arrays holding
+     * them.
+     */
+    @Test
+    public void testCopy() {
+        final Node child = new Node('a');
+        testObject.putChild('a', child);
+        testObject.setCompleteWord(true);
+        testObject.setWeight(4);
+        testObject.addToWordCount(3);
+
+        final Node copy = testObject.copy();
+
+        assertEquals(testObject.getCharacter(), copy.getCharacter());
+        assertTrue(copy.isCompleteWord());
+        assertEquals(3, copy.getWordCount());
+        assertTrue(copy.hasSuffixOfLength(0));
+        assertEquals(4, copy.getMaxWeight());
+        assertSame(child, copy.getChild('a'));
+
+        copy.putChild('b', new Node('b'));
+        copy.removeChild('a');
+
+        assertSame(child, testObject.getChild('a'));
+        assertNull(testObject.getChild('b'));
+        assertEquals(1, testObject.getChildCount());
+    }
+
+    /**
+     * Test that trimming the children keeps them, in order.
+     */
+    @Test
+    public void testTrimChildren() {
+        testObject.trimChildren();
+
+        for (final char key : "cab".toCharArray()) {
+            testObject.putChild(key, new Node(key));
+        }
+
+        testObject.trimChildren();
+
+        assertEquals(3, testObject.getChildCount());
+        assertEquals('a', testObject.getChildKey(0));
+        assertEquals('c', testObject.getChildKey(2));
+
+        testObject.putChild('d', new Node('d'));
+
+        assertEquals('d', testObject.getChildKey(3));
+        assertNotNull(testObject.getChild('b'));
+    }
+}
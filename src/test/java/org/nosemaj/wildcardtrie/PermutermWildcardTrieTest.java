@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+
+/**
+ * Test the PermutermWildcardTrie class.
+ */
+public class PermutermWildcardTrieTest {
+    private static final char T = PermutermWildcardTrie.TERMINATOR;
+
+    private static final Set<String> EXPECTED_TEST_WORDS = ImmutableSet.of(
+        "fun",
+        "fund",
+        "funds",
+        "funding",
+        "farm",
+        "farming",
+        "potato",
+        "potto",
+        "tunafish",
+        "crowdfunding",
+        "fun farm"
+    );
+
+    private static final Set<String> SEARCH_TERMS = ImmutableSet.of(
+        "fun", "f***", "*un", "f*n*", "****", "*******", "fun*", "*",
+        "*unafish", "pot*to", "po**to", "p*t*t*", "f*****g", "*a*m",
+        "fun ***m", "zzz"
+    );
+
+    private PermutermWildcardTrie testObject;
+    private WildcardTrie referenceTrie;
+
+    /**
+     * Sets up the object under test, and a plain trie to check it
+     * against.
+     */
+    @Before
+    public void setup() {
+        testObject = new PermutermWildcardTrie();
+        testObject.addWords(EXPECTED_TEST_WORDS);
+
+        referenceTrie = new WildcardTrie();
+        referenceTrie.addWords(EXPECTED_TEST_WORDS);
+    }
+
+    /**
+     * Test that every search agrees with the plain trie.
+     */
+    @Test
+    public void testAgreesWithWildcardTrie() {
+        SearchAgreement.assertAgrees(
+            referenceTrie,
+            SEARCH_TERMS,
+            testObject::getMatchingWords,
+            testObject::countMatchingWords,
+            testObject::isWord
+        );
+    }
+
+    /**
+     * Test that search terms are rotated to start at their longest run
+     * of literals, which may wrap around through the terminator.
+     */
+    @Test
+    public void testRotateSearchTerm() {
+        assertEquals(
+            "to" + T + "pot*",
+            testObject.rotateSearchTerm("pot*to")
+        );
+        assertEquals(
+            "ing" + T + "*****",
+            testObject.rotateSearchTerm("*****ing")
+        );
+        assertEquals(
+            "fun" + T,
+            testObject.rotateSearchTerm("fun")
+        );
+        assertEquals(
+            T + "f*n*",
+            testObject.rotateSearchTerm("f*n*")
+        );
+        assertEquals(
+            T + "****",
+            testObject.rotateSearchTerm("****")
+        );
+    }
+
+    /**
+     * Test that null and empty search terms match nothing.
+     */
+    @Test
+    public void testNullAndEmpty() {
+        assertFalse(testObject.isWord(null));
+        assertFalse(testObject.isWord(""));
+        assertTrue(testObject.getMatchingWords(null).isEmpty());
+        assertEquals(0, testObject.countMatchingWords(""));
+    }
+
+    /**
+     * Test that adding an empty word throws a RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testAddWordEmpty() {
+        testObject.addWord("");
+    }
+
+    /**
+     * Test that adding a word with the terminator in it throws a
+     * RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testAddWordTerminator() {
+        testObject.addWord("fun" + T);
+    }
+
+    /**
+     * Test that adding a word with a wildcard in it throws a
+     * RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testAddWordWildcard() {
+        testObject.addWord("f*n");
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+
+/**
+ * Test the RadixTrie class.
+ */
+public class RadixTrieTest {
+    private static final Set<String> EXPECTED_TEST_WORDS = ImmutableSet.of(
+        "fun",
+        "fund",
+        "funds",
+        "funding",
+        "farm",
+        "tunafish",
+        "crowdfunding",
+        "fun farm"
+    );
+
+    private static final Set<String> SEARCH_TERMS = ImmutableSet.of(
+        "f", "fu", "fun", "fund", "funds", "f***", "*un", "f*n*", "****",
+        "*******", "fun*", "*", "tunafis*", "*unafish", "fun ***m", "zzz"
+    );
+
+    private RadixTrie testObject;
+    private WildcardTrie referenceTrie;
+
+    /**
+     * Sets up the object under test, and a plain trie to check it
+     * against.
+     */
+    @Before
+    public void setup() {
+        testObject = new RadixTrie();
+        testObject.addWords(EXPECTED_TEST_WORDS);
+
+        referenceTrie = new WildcardTrie();
+        referenceTrie.addWords(EXPECTED_TEST_WORDS);
+    }
+
+    /**
+     * Test that every search agrees with the plain trie.
+     */
+    @Test
+    public void testAgreesWithWildcardTrie() {
+        SearchAgreement.assertAgrees(
+            referenceTrie,
+            SEARCH_TERMS,
+            testObject::getMatchingWords,
+            testObject::countMatchingWords,
+            testObject::isWord,
+            testObject::isPrefix
+        );
+    }
+
+    /**
+     * Test that a word which ends part way along an edge splits it,
+     * and is found as a word and a prefix.
+     */
+    @Test
+    public void testAddWordSplitsEdge() {
+        testObject.addWord("tuna");
+
+        assertTrue(testObject.isWord("tuna"));
+        assertTrue(testObject.isPrefix("tuna"));
+        assertTrue(testObject.isWord("tunafish"));
+        assertFalse(testObject.isWord("tunaf"));
+        assertTrue(testObject.isPrefix("tunaf"));
+    }
+
+    /**
+     * Test that single-child chains are collapsed.
+     */
+    @Test
+    public void testNodeCountIsCompressed() {
+        assertTrue(
+            testObject.getNodeCount() < referenceTrie.getNodeCount()
+        );
+
+        final RadixTrie trie = new RadixTrie();
+        trie.addWord("tunafish");
+
+        assertEquals(2, trie.getNodeCount());
+    }
+
+    /**
+     * Test that null and empty search terms match nothing.
+     */
+    @Test
+    public void testNullAndEmpty() {
+        assertFalse(testObject.isWord(null));
+        assertFalse(testObject.isPrefix(""));
+        assertTrue(testObject.getMatchingWords(null).isEmpty());
+        assertEquals(0, testObject.countMatchingWords(""));
+    }
+
+    /**
+     * Test that adding a word with a wildcard in it throws a
+     * RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testAddWordWildcard() {
+        testObject.addWord("f*n");
+    }
+
+    /**
+     * Test that a trie with no wildcard takes words which contain the
+     * text "null".
+     */
+    @Test
+    public void testNullWildcard() {
+        final RadixTrie trie = new RadixTrie(null);
+        trie.addWord("nullify");
+
+        assertTrue(trie.isWord("nullify"));
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Test the RegexDfa class.
+ */
+public class RegexDfaTest {
+    private static final List<String> REGEXES = ImmutableList.of(
+        "", "a", "abc", "a|b", "ab|c", "a*", "a+b", "ab?c", "(ab)*",
+        "(a|b)*c", "a(b|c)+", ".", "..", ".*", "a.*c", "[ab]c",
+        "[^a]*", "[a-b]+c?", "(a*)*", "(a|)b", "((a|b)c)?a", "\\.",
+        "a\\*", "(a+|b+)*c", "c(ba|ab)*", "a|b|c|\\.|\\*",
+        "a?a?a?aaa", "((((a))))|((b)c)"
+    );
+
+    /**
+     * Test that the automaton agrees with java.util.regex on every
+     * string of up to five characters from a small alphabet.
+     */
+    @Test
+    public void testAgreesWithPattern() {
+        final List<String> inputs = allStrings("abc.*", 5);
+
+        for (final String regex : REGEXES) {
+            final RegexDfa dfa = new RegexDfa(regex);
+            final Pattern pattern = Pattern.compile(regex);
+
+            for (final String input : inputs) {
+                assertEquals(
+                    regex + " against " + input,
+                    pattern.matcher(input).matches(),
+                    dfa.matches(input)
+                );
+            }
+        }
+    }
+
+    /**
+     * Test that a transition with nowhere left to go is dead.
+     */
+    @Test
+    public void testDeadState() {
+        final RegexDfa dfa = new RegexDfa("ab*");
+
+        assertEquals(RegexDfa.DEAD, dfa.step(dfa.getStart(), 'b'));
+        assertTrue(RegexDfa.DEAD != dfa.step(dfa.getStart(), 'a'));
+    }
+
+    /**
+     * Test that characters beyond ASCII are matched too.
+     */
+    @Test
+    public void testBeyondAscii() {
+        final RegexDfa dfa = new RegexDfa("caf[à-ÿ]|λ+");
+
+        assertTrue(dfa.matches("café"));
+        assertTrue(dfa.matches("λλ"));
+        assertFalse(dfa.matches("cafe"));
+    }
+
+    /**
+     * Test that an unbalanced group throws a RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testUnbalancedGroup() {
+        new RegexDfa("(ab");
+    }
+
+    /**
+     * Test that an unexpected close of a group throws a
+     * RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testUnexpectedClose() {
+        new RegexDfa("ab)");
+    }
+
+    /**
+     * Test that a repetition with nothing to repeat throws a
+     * RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testDanglingRepetition() {
+        new RegexDfa("*a");
+    }
+
+    /**
+     * Test that a trailing escape throws a RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testTrailingEscape() {
+        new RegexDfa("a\\");
+    }
+
+    /**
+     * Test that syntax which java.util.regex would not take literally,
+     * and which the automaton does not support, throws a
+     * RuntimeException rather than being matched as literal text.
+     */
+    @Test
+    public void testUnsupportedSyntax() {
+        for (final String regex : ImmutableList.of(
+                "a\\d", "\\w+", "\\s", "\\b", "(a)\\1", "\\Qa\\E",
+                "a{2}", "a{1,3}", "(ab){0}", "^ab", "ab$", "a|^b",
+                "[\\d]", "[a\\]]", "[a[b]]", "[a-c&&b]", "a*?", "a*+",
+                "a++", "(ab)??")) {
+
+            Pattern.compile(regex);
+
+            try {
+                new RegexDfa(regex);
+                fail(regex);
+            } catch (final RuntimeException expected) {
+                assertTrue(regex, expected.getMessage().contains(regex));
+            }
+        }
+    }
+
+    /**
+     * Test that stacked quantifiers, which java.util.regex rejects as
+     * dangling, throw a RuntimeException.
+     */
+    @Test
+    public void testStackedQuantifiers() {
+        for (final String regex : ImmutableList.of(
+                "a**", "a+*", "a?*", "(ab)**", "[ab]*+*")) {
+
+            try {
+                Pattern.compile(regex);
+                fail(regex);
+            } catch (final PatternSyntaxException expected) {
+                // Pattern rejects these too.
+            }
+
+            try {
+                new RegexDfa(regex);
+                fail(regex);
+            } catch (final RuntimeException expected) {
+                assertTrue(regex, expected.getMessage().contains(regex));
+            }
+        }
+    }
+
+    /**
+     * Test that escaped operators still stand for themselves.
+     */
+    @Test
+    public void testEscapedOperators() {
+        final RegexDfa dfa = new RegexDfa("\\{\\^a\\$\\}");
+
+        assertTrue(dfa.matches("{^a$}"));
+        assertFalse(dfa.matches("a"));
+    }
+
+    /**
+     * Lists every string of up to a given length over an alphabet.
+     *
+     * @param alphabet the characters to use
+     * @param maxLength the longest string to list
+     *
+     * @return every such string, including the empty one
+     */
+    private static List<String> allStrings(
+            final String alphabet,
+            final int maxLength) {
+
+        final List<String> strings = new ArrayList<>();
+        strings.add("");
+
+        for (int start = 0; start < strings.size(); start++) {
+            final String prefix = strings.get(start);
+
+            if (prefix.length() < maxLength) {
+                for (final char character : alphabet.toCharArray()) {
+                    strings.add(prefix + character);
+                }
+            }
+        }
+
+        return strings;
+    }
+}
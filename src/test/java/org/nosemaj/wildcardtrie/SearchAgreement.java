@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.nosemaj.wildcardtrie;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Checks the searches of another structure against those of a plain
+ * {@link WildcardTrie} holding the same words: the differential test
+ * that each alternative to the trie shares.
+ */
+final class SearchAgreement {
+    /**
+     * Prevents construction; this class has only static methods.
+     */
+    private SearchAgreement() {
+    }
+
+    /**
+     * Asserts that every search term finds the same words, the same
+     * number of them, and the same answers to isWord() and isPrefix(),
+     * as the reference trie.
+     *
+     * @param reference the plain trie to check against
+     * @param searchTerms the search terms to try
+     * @param getMatchingWords the structure's getMatchingWords()
+     * @param countMatchingWords the structure's countMatchingWords()
+     * @param isWord the structure's isWord()
+     * @param isPrefix the structure's isPrefix()
+     */
+    static void assertAgrees(
+            final WildcardTrie reference,
+            final Set<String> searchTerms,
+            final Function<String, Set<String>> getMatchingWords,
+            final ToIntFunction<String> countMatchingWords,
+            final Predicate<String> isWord,
+            final Predicate<String> isPrefix) {
+
+        assertAgrees(
+            reference,
+            searchTerms,
+            getMatchingWords,
+            countMatchingWords,
+            isWord
+        );
+
+        for (final String searchTerm : searchTerms) {
+            assertEquals(
+                searchTerm,
+                reference.isPrefix(searchTerm),
+                isPrefix.test(searchTerm)
+            );
+        }
+    }
+
+    /**
+     * Asserts that every search term finds the same words, the same
+     * number of them, and the same answer to isWord(), as the
+     * reference trie, for a structure which has no isPrefix().
+     *
+     * @param reference the plain trie to check against
+     * @param searchTerms the search terms to try
+     * @param getMatchingWords the structure's getMatchingWords()
+     * @param countMatchingWords the structure's countMatchingWords()
+     * @param isWord the structure's isWord()
+     */
+    static void assertAgrees(
+            final WildcardTrie reference,
+            final Set<String> searchTerms,
+            final Function<String, Set<String>> getMatchingWords,
+            final ToIntFunction<String> countMatchingWords,
+            final Predicate<String> isWord) {
+
+        for (final String searchTerm : searchTerms) {
+            assertEquals(
+                searchTerm,
+                reference.getMatchingWords(searchTerm),
+                getMatchingWords.apply(searchTerm)
+            );
+            assertEquals(
+                searchTerm,
+                reference.countMatchingWords(searchTerm),
+                countMatchingWords.applyAsInt(searchTerm)
+            );
+            assertEquals(
+                searchTerm,
+                reference.isWord(searchTerm),
+                isWord.test(searchTerm)
+            );
+        }
+    }
+}
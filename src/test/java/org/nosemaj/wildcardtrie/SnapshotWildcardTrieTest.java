@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Test the SnapshotWildcardTrie class.
+ */
+public class SnapshotWildcardTrieTest {
+    private static final Set<String> EXPECTED_TEST_WORDS = ImmutableSet.of(
+        "fun",
+        "fund",
+        "funds",
+        "funding",
+        "farm",
+        "tunafish",
+        "crowdfunding",
+        "fun farm"
+    );
+
+    private SnapshotWildcardTrie testObject;
+
+    /**
+     * Sets up the object under test.
+     */
+    @Before
+    public void setup() {
+        testObject = new SnapshotWildcardTrie('*', '%');
+
+        assertTrue(testObject.batch().addWords(EXPECTED_TEST_WORDS).commit());
+    }
+
+    /**
+     * Test that changes are invisible until their batch is committed,
+     * and then all visible at once.
+     */
+    @Test
+    public void testCommit() {
+        final SnapshotWildcardTrie.Batch batch = testObject.batch()
+            .addWord("fan")
+            .removeWords(ImmutableSet.of("fund", "farm"));
+
+        assertFalse(testObject.isWord("fan"));
+        assertTrue(testObject.isWord("fund"));
+        assertEquals(EXPECTED_TEST_WORDS, testObject.getMatchingWords("%"));
+
+        assertTrue(batch.commit());
+
+        assertEquals(
+            ImmutableSet.of("fun", "fan"),
+            testObject.getMatchingWords("f*n")
+        );
+        assertEquals(0, testObject.countMatchingWords("f***"));
+        assertFalse(testObject.isPrefix("far"));
+    }
+
+    /**
+     * Test that a snapshot is unchanged by the batches committed after
+     * it was taken, and shares the subtrees they did not touch.
+     */
+    @Test
+    public void testSnapshotIsStable() {
+        final WildcardTrie before = testObject.snapshot();
+        final int nodeCount = before.getNodeCount();
+
+        testObject.batch()
+            .addWord("funnel")
+            .addWord("fundraiser")
+            .removeWords(ImmutableSet.of("fun", "funds"))
+            .commit();
+
+        final WildcardTrie after = testObject.snapshot();
+
+        assertEquals(EXPECTED_TEST_WORDS, before.getMatchingWords("%"));
+        assertEquals(nodeCount, before.getNodeCount());
+        assertEquals(
+            ImmutableSet.of("fund", "funding", "fun farm", "funnel",
+                "fundraiser"),
+            after.getMatchingWords("fun%")
+        );
+
+        assertSame(before.findNode("t"), after.findNode("t"));
+        assertSame(before.findNode("fundi"), after.findNode("fundi"));
+        assertNotSame(before.findNode("fund"), after.findNode("fund"));
+        assertNotSame(before.getRoot(), after.getRoot());
+    }
+
+    /**
+     * Test that the records kept for pruning and ranking are brought up
+     * to date in the new version only.
+     */
+    @Test
+    public void testWeightsAndLengths() {
+        testObject.batch().addWord("fund", 5).addWord("farm", 3).commit();
+
+        final WildcardTrie before = testObject.snapshot();
+
+        testObject.batch()
+            .addWord("fund", 1)
+            .addWord("fundraiser", 9)
+            .commit();
+
+        assertEquals(
+            ImmutableList.of("fund", "farm"),
+            before.getTopMatchingWords("f%", 2)
+        );
+        assertEquals(
+            ImmutableList.of("fundraiser", "farm"),
+            testObject.snapshot().getTopMatchingWords("f%", 2)
+        );
+        assertEquals(0, before.countMatchingWords("f*********"));
+        assertEquals(1, testObject.countMatchingWords("f*********"));
+    }
+
+    /**
+     * Test that a batch based on a version which has since been
+     * replaced is not committed.
+     */
+    @Test
+    public void testStaleBatch() {
+        final SnapshotWildcardTrie.Batch first = testObject.batch();
+        final SnapshotWildcardTrie.Batch second = testObject.batch();
+
+        assertTrue(first.addWord("fan").commit());
+        assertFalse(second.addWord("fin").commit());
+
+        assertTrue(testObject.isWord("fan"));
+        assertFalse(testObject.isWord("fin"));
+    }
+
+    /**
+     * Test that a batch may not be changed once committed.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testBatchAfterCommit() {
+        final SnapshotWildcardTrie.Batch batch = testObject.batch();
+        batch.commit();
+        batch.addWord("fan");
+    }
+
+    /**
+     * Test that a snapshot may not have words added to it.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testAddWordToSnapshot() {
+        testObject.snapshot().addWord("fan");
+    }
+
+    /**
+     * Test that a snapshot may not have words loaded into it in
+     * parallel, and is left as it was.
+     */
+    @Test
+    public void testAddWordsParallelToSnapshot() {
+        final WildcardTrie snapshot = testObject.snapshot();
+
+        try {
+            snapshot.addWords(
+                ImmutableList.of("dog"),
+                ForkJoinPool.commonPool()
+            );
+            fail("Expected a RuntimeException.");
+        } catch (final RuntimeException expected) {
+            assertFalse(snapshot.isWord("dog"));
+            assertFalse(testObject.isWord("dog"));
+            assertEquals(EXPECTED_TEST_WORDS, testObject.getMatchingWords("%"));
+        }
+    }
+
+    /**
+     * Test that a snapshot may not have words removed from it.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testRemoveWordFromSnapshot() {
+        testObject.snapshot().removeWord("fun");
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2017 nosemaj.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nosemaj.wildcardtrie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test the WildcardTrieMap class.
+ */
+public class WildcardTrieMapTest {
+    private static final Map<String, Integer> EXPECTED_TEST_ENTRIES =
+        ImmutableMap.<String, Integer>builder()
+            .put("fun", 1)
+            .put("fund", 2)
+            .put("funds", 3)
+            .put("funding", 4)
+            .put("farm", 5)
+            .put("tunafish", 6)
+            .put("crowdfunding", 7)
+            .put("fun farm", 8)
+            .build();
+
+    private WildcardTrieMap<Integer> testObject;
+
+    /**
+     * Sets up the object under test.
+     */
+    @Before
+    public void setup() {
+        testObject = new WildcardTrieMap<>('*', '%');
+
+        EXPECTED_TEST_ENTRIES.forEach(testObject::put);
+    }
+
+    /**
+     * Test that every value can be read back, and that non-keys have
+     * none.
+     */
+    @Test
+    public void testGet() {
+        EXPECTED_TEST_ENTRIES.forEach(
+            (key, value) -> assertEquals(key, value, testObject.get(key))
+        );
+
+        assertNull(testObject.get("fu"));
+        assertNull(testObject.get("f*n"));
+        assertNull(testObject.get(null));
+        assertFalse(testObject.containsKey("fu"));
+        assertTrue(testObject.containsKey("fun"));
+    }
+
+    /**
+     * Test that putting a value for an existing key replaces it.
+     */
+    @Test
+    public void testPutReplaces() {
+        assertEquals(Integer.valueOf(1), testObject.put("fun", 10));
+        assertEquals(Integer.valueOf(10), testObject.get("fun"));
+        assertNull(testObject.put("fu", 11));
+        assertTrue(testObject.isWord("fu"));
+    }
+
+    /**
+     * Test that a removed key is no longer a word, and has no value,
+     * while the words around it are untouched.
+     */
+    @Test
+    public void testRemove() {
+        assertEquals(Integer.valueOf(2), testObject.remove("fund"));
+        assertNull(testObject.remove("fund"));
+        assertNull(testObject.remove("zzz"));
+
+        assertFalse(testObject.isWord("fund"));
+        assertFalse(testObject.containsKey("fund"));
+        assertNull(testObject.get("fund"));
+        assertEquals(Integer.valueOf(3), testObject.get("funds"));
+        assertTrue(testObject.getMatchingWords("fun*").isEmpty());
+        assertEquals(
+            ImmutableSet.of("fun", "fun farm", "funds", "funding"),
+            testObject.getMatchingWords("fun%")
+        );
+    }
+
+    /**
+     * Test that a key removed as a word does not bring its old value back
+     * when it is added again, though longer keys keep its node alive.
+     */
+    @Test
+    public void testRemoveWordThenAddWord() {
+        assertTrue(testObject.removeWord("fund"));
+        testObject.addWord("fund");
+
+        assertTrue(testObject.containsKey("fund"));
+        assertNull(testObject.get("fund"));
+        assertEquals(Integer.valueOf(3), testObject.get("funds"));
+    }
+
+    /**
+     * Test that matching entries carry the right values.
+     */
+    @Test
+    public void testGetMatchingEntries() {
+        assertEquals(
+            ImmutableMap.of("fund", 2, "farm", 5),
+            testObject.getMatchingEntries("f***")
+        );
+        assertEquals(
+            ImmutableMap.of("funding", 4, "crowdfunding", 7),
+            testObject.getMatchingEntries("%ing")
+        );
+        assertEquals(EXPECTED_TEST_ENTRIES, testObject.getMatchingEntries("%"));
+        assertTrue(testObject.getMatchingEntries(null).isEmpty());
+    }
+
+    /**
+     * Test that matching entries are visited in ascending order.
+     */
+    @Test
+    public void testForEachMatchingEntry() {
+        final List<String> visited = new ArrayList<>();
+
+        testObject.forEachMatchingEntry(
+            "fun%",
+            (word, value) -> visited.add(word + "=" + value)
+        );
+
+        assertEquals(
+            ImmutableList.of(
+                "fun=1", "fun farm=8", "fund=2", "funding=4", "funds=3"
+            ),
+            visited
+        );
+    }
+
+    /**
+     * Test that a word added without a value maps to null.
+     */
+    @Test
+    public void testAddWordHasNoValue() {
+        testObject.addWord("tuna");
+
+        assertTrue(testObject.containsKey("tuna"));
+        assertNull(testObject.get("tuna"));
+    }
+
+    /**
+     * Test that a key with a wildcard in it throws a RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testPutWildcard() {
+        testObject.put("f*n", 1);
+    }
+}
@@ -20,17 +20,24 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
@@ -59,7 +66,7 @@ public class WildcardTrieTest {
      */
     @Before
     public void setup() {
-        testObject = new WildcardTrie();
+        testObject = new WildcardTrie('*', '%', true);
 
         testObject.addWords(EXPECTED_TEST_WORDS);
     }
@@ -343,6 +350,15 @@ public class WildcardTrieTest {
         )));
     }
 
+    /**
+     * Test that toString() shows the root as representing no character.
+     */
+    @Test
+    public void testToStringRoot() {
+        assertEquals("[null ->]", new WildcardTrie().toString());
+        assertTrue(testObject.toString().startsWith("[null -> c f t]"));
+    }
+
     /**
      * Test that toString() is mentioning all of the characters we put
      * into the trie.
@@ -453,6 +469,19 @@ public class WildcardTrieTest {
         assertTrue(matches.contains("tunafish"));
     }
 
+    /**
+     * Test interleaved wildcards, which write into the middle of the
+     * path buffer as well as its ends.
+     */
+    @Test
+    public void testGetMatchingWordsInterleavedWildcards() {
+        final Set<String> matches =
+            testObject.getMatchingWords("f*n*");
+
+        assertNotNull(matches);
+        assertEquals(ImmutableSet.of("fund"), matches);
+    }
+
     /**
      * Test getMatchingWords() on an empty trie.
      */
@@ -462,5 +491,1030 @@ public class WildcardTrieTest {
 
         assertTrue(trie.getMatchingWords("*").isEmpty());
     }
-}
 
+    /**
+     * Test that the stream of matches holds the same words as the set
+     * returned by getMatchingWords(), for a variety of search terms.
+     */
+    @Test
+    public void testStreamMatchingWordsAgreesWithGetMatchingWords() {
+        for (final String searchTerm : ImmutableSet.of(
+                "fun", "****", "f***", "*un", "f*n*", "*******", "zzz")) {
+
+            assertEquals(
+                testObject.getMatchingWords(searchTerm),
+                testObject.streamMatchingWords(searchTerm)
+                    .collect(Collectors.toSet())
+            );
+        }
+    }
+
+    /**
+     * Test that null and empty search terms stream no matches.
+     */
+    @Test
+    public void testStreamMatchingWordsNullAndEmpty() {
+        assertEquals(0, testObject.streamMatchingWords(null).count());
+        assertEquals(0, testObject.streamMatchingWords("").count());
+    }
+
+    /**
+     * Test that the iterator can be abandoned part way through, and
+     * that it refuses to go past its end.
+     */
+    @Test
+    public void testMatchingWordsIteratorStopsEarly() {
+        final Iterator<String> iterator =
+            testObject.matchingWordsIterator("****");
+
+        assertTrue(iterator.hasNext());
+        assertTrue(ImmutableSet.of("fund", "farm").contains(iterator.next()));
+        assertTrue(iterator.hasNext());
+        iterator.next();
+        assertFalse(iterator.hasNext());
+
+        try {
+            iterator.next();
+            fail("Expected NoSuchElementException.");
+        } catch (NoSuchElementException expected) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Test that a bounded query returns the first matches, in order.
+     */
+    @Test
+    public void testGetMatchingWordsBounded() {
+        testObject.addWords(ImmutableSet.of("fin", "fan", "fen", "fon"));
+
+        assertEquals(
+            ImmutableList.of("fan", "fen", "fin"),
+            testObject.getMatchingWords("f*n", 3)
+        );
+
+        assertEquals(
+            ImmutableList.of("fan", "fen", "fin", "fon", "fun"),
+            testObject.getMatchingWords("f*n", 100)
+        );
+    }
+
+    /**
+     * Test that a bound of zero, or a null search term, returns no
+     * matches.
+     */
+    @Test
+    public void testGetMatchingWordsBoundedEmpty() {
+        assertTrue(testObject.getMatchingWords("***", 0).isEmpty());
+        assertTrue(testObject.getMatchingWords(null, 10).isEmpty());
+    }
+
+    /**
+     * Test that a negative bound throws a RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testGetMatchingWordsBoundedNegative() {
+        testObject.getMatchingWords("***", -1);
+    }
+
+    /**
+     * Test that countMatchingWords() agrees with the size of the set
+     * returned by getMatchingWords().
+     */
+    @Test
+    public void testCountMatchingWords() {
+        for (final String searchTerm : ImmutableSet.of(
+                "fun", "****", "f***", "*un", "f*n*", "*******", "zzz")) {
+
+            assertEquals(
+                testObject.getMatchingWords(searchTerm).size(),
+                testObject.countMatchingWords(searchTerm)
+            );
+        }
+    }
+
+    /**
+     * Test that null and empty search terms count no matches.
+     */
+    @Test
+    public void testCountMatchingWordsNullAndEmpty() {
+        assertEquals(0, testObject.countMatchingWords(null));
+        assertEquals(0, testObject.countMatchingWords(""));
+    }
+
+    /**
+     * Test that a wildcard prefix is found even when only one branch
+     * of the wildcard leads to a node with children.
+     */
+    @Test
+    public void testIsPrefixWildcardCompound() {
+        assertTrue(testObject.isPrefix("*una"));
+        assertFalse(testObject.isPrefix("*unafish"));
+    }
+
+    /**
+     * Test that words longer than the lengths a node records exactly
+     * are still found, by literals and by wildcards.
+     */
+    @Test
+    public void testVeryLongWords() {
+        final String longWord =
+            String.join("", Collections.nCopies(35, "ab"));
+        final String allWildcards =
+            String.join("", Collections.nCopies(70, "*"));
+
+        testObject.addWord(longWord);
+        testObject.addWord(longWord + "c");
+
+        assertTrue(testObject.isWord(longWord));
+        assertTrue(testObject.isPrefix(longWord));
+        assertEquals(
+            ImmutableSet.of(longWord),
+            testObject.getMatchingWords(allWildcards)
+        );
+        assertEquals(1, testObject.countMatchingWords(allWildcards + "*"));
+        assertFalse(testObject.isWord(allWildcards + "**"));
+    }
+
+    /**
+     * Test that the glob matches runs of zero or more characters.
+     */
+    @Test
+    public void testGetMatchingWordsGlob() {
+        assertEquals(
+            ImmutableSet.of("fun", "fund", "funds", "funding", "fun farm"),
+            testObject.getMatchingWords("fun%")
+        );
+        assertEquals(
+            ImmutableSet.of("funding", "crowdfunding"),
+            testObject.getMatchingWords("%ing")
+        );
+        assertEquals(
+            ImmutableSet.of("farm", "fun farm"),
+            testObject.getMatchingWords("f%a%m")
+        );
+        assertEquals(
+            ImmutableSet.of("farm", "fun farm"),
+            testObject.getMatchingWords("f%%*m")
+        );
+        assertEquals(EXPECTED_TEST_WORDS, testObject.getMatchingWords("%"));
+        assertTrue(testObject.getMatchingWords("%z%").isEmpty());
+    }
+
+    /**
+     * Test that glob searches agree with a regular expression over the
+     * same words, across all of the search methods.
+     */
+    @Test
+    public void testGlobAgreesWithRegex() {
+        for (final String searchTerm : ImmutableSet.of(
+                "%", "%%", "f%", "%d", "%n%", "%u%n%", "*u%", "%*n*",
+                "f%n%g", "%fun%", "fun%%", "%f%u%n%d%", "c%%%g", "*%*",
+                "tunafish%", "%tunafish", "%z%", "%*********")) {
+
+            final String regex = searchTerm
+                .replace("*", ".")
+                .replace("%", ".*");
+            final List<String> expected = EXPECTED_TEST_WORDS.stream()
+                .filter(word -> word.matches(regex))
+                .sorted()
+                .collect(Collectors.toList());
+
+            assertEquals(
+                searchTerm,
+                new HashSet<>(expected),
+                testObject.getMatchingWords(searchTerm)
+            );
+            assertEquals(
+                searchTerm,
+                expected.size(),
+                testObject.countMatchingWords(searchTerm)
+            );
+            assertEquals(
+                searchTerm,
+                !expected.isEmpty(),
+                testObject.isWord(searchTerm)
+            );
+            assertEquals(
+                searchTerm,
+                expected,
+                testObject.streamMatchingWords(searchTerm)
+                    .collect(Collectors.toList())
+            );
+        }
+    }
+
+    /**
+     * Test that a glob search can be bounded, and returns the first
+     * matches in ascending order.
+     */
+    @Test
+    public void testGetMatchingWordsGlobBounded() {
+        assertEquals(
+            ImmutableList.of("crowdfunding", "farm"),
+            testObject.getMatchingWords("%", 2)
+        );
+        assertEquals(
+            ImmutableList.of("fun", "fun farm", "fund"),
+            testObject.getMatchingWords("fun%", 3)
+        );
+    }
+
+    /**
+     * Test that a glob prefix search finds nodes with children.
+     */
+    @Test
+    public void testIsPrefixGlob() {
+        assertTrue(testObject.isPrefix("%fund"));
+        assertTrue(testObject.isPrefix("c%f"));
+        assertFalse(testObject.isPrefix("%fish"));
+        assertFalse(testObject.isPrefix("%z"));
+    }
+
+    /**
+     * Test that a pattern with many globs, which could line up against
+     * a long word in a great many ways, is still answered quickly.
+     */
+    @Test(timeout = 5000)
+    public void testManyGlobsDoNotBlowUp() {
+        final String longWord =
+            String.join("", Collections.nCopies(60, "a"));
+
+        testObject.addWord(longWord);
+
+        final String searchTerm =
+            String.join("", Collections.nCopies(30, "%a")) + "%b";
+
+        assertFalse(testObject.isWord(searchTerm));
+        assertEquals(0, testObject.countMatchingWords(searchTerm));
+        assertTrue(testObject.isWord(searchTerm.substring(0, 60) + "%"));
+    }
+
+    /**
+     * Test that adding a word with the glob in it throws a
+     * RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testAddWordGlob() {
+        testObject.addWord("fun%");
+    }
+
+    /**
+     * Test that a trie with no glob treats the glob character as a
+     * literal.
+     */
+    @Test
+    public void testNullGlob() {
+        final WildcardTrie trie =
+            new WildcardTrie(EXPECTED_WILDCARD_CHAR, null);
+        trie.addWord("100%");
+        trie.addWord("1000");
+
+        assertEquals(ImmutableSet.of("100%"), trie.getMatchingWords("100%"));
+        assertEquals(2, trie.countMatchingWords("100*"));
+    }
+
+    /**
+     * Test that the constructors which take no glob leave it off, so
+     * that words with a percent sign in them may still be added.
+     */
+    @Test
+    public void testLegacyConstructorsHaveNoGlob() {
+        final WildcardTrie trie = new WildcardTrie('?');
+        trie.addWord("50%");
+        trie.addWord("500");
+
+        assertTrue(trie.isWord("50%"));
+        assertEquals(ImmutableSet.of("50%"), trie.getMatchingWords("5?%"));
+        assertEquals(2, trie.countMatchingWords("50?"));
+
+        final WildcardTrie defaults = new WildcardTrie();
+        defaults.addWord("50%");
+
+        assertTrue(defaults.isWord("50%"));
+        assertEquals(1, defaults.countMatchingWords("**%"));
+    }
+
+    /**
+     * Test that a trie with no wildcard takes words which contain the
+     * text "null", and treats every character as a literal.
+     */
+    @Test
+    public void testNullWildcard() {
+        final WildcardTrie trie = new WildcardTrie(null, null);
+        trie.addWord("annulled");
+        trie.addWord("null");
+        trie.addWord("f*n");
+
+        assertTrue(trie.isWord("annulled"));
+        assertTrue(trie.isWord("null"));
+        assertEquals(ImmutableSet.of("f*n"), trie.getMatchingWords("f*n"));
+    }
+
+    /**
+     * Test that character classes match one character from a set, a
+     * range, or outside a set.
+     */
+    @Test
+    public void testGetMatchingWordsCharacterClass() {
+        assertEquals(
+            ImmutableSet.of("fun"),
+            testObject.getMatchingWords("f[aeiou]n")
+        );
+        assertEquals(
+            ImmutableSet.of("fund", "farm"),
+            testObject.getMatchingWords("f[aeiou]**")
+        );
+        assertEquals(
+            ImmutableSet.of("fund", "farm"),
+            testObject.getMatchingWords("f[a-u][n-r][d-m]")
+        );
+        assertEquals(
+            ImmutableSet.of("farm"),
+            testObject.getMatchingWords("f[^u]**")
+        );
+        assertEquals(
+            ImmutableSet.of("funding", "crowdfunding"),
+            testObject.getMatchingWords("%[i][^x-z]g")
+        );
+        assertTrue(testObject.getMatchingWords("[xyz]%").isEmpty());
+    }
+
+    /**
+     * Test that character classes agree with a regular expression over
+     * the same words, across all of the search methods.
+     */
+    @Test
+    public void testCharacterClassAgreesWithRegex() {
+        for (final String searchTerm : ImmutableSet.of(
+                "[f]un", "[cft]%", "[^f]%", "fun[ d]%", "%[a-e]%",
+                "*[aeiou]*", "[a-z][a-z][a-z]", "%[^a-z]%", "f[u-]nd",
+                "f[^]u]n", "[]f]un", "%[s-t]")) {
+
+            final String regex = searchTerm
+                .replace("*", ".")
+                .replace("%", ".*");
+            final List<String> expected = EXPECTED_TEST_WORDS.stream()
+                .filter(word -> word.matches(regex))
+                .sorted()
+                .collect(Collectors.toList());
+
+            assertEquals(
+                searchTerm,
+                new HashSet<>(expected),
+                testObject.getMatchingWords(searchTerm)
+            );
+            assertEquals(
+                searchTerm,
+                expected.size(),
+                testObject.countMatchingWords(searchTerm)
+            );
+            assertEquals(
+                searchTerm,
+                !expected.isEmpty(),
+                testObject.isWord(searchTerm)
+            );
+            assertEquals(
+                searchTerm,
+                expected,
+                testObject.streamMatchingWords(searchTerm)
+                    .collect(Collectors.toList())
+            );
+        }
+    }
+
+    /**
+     * Test that characters outside of ASCII can be matched by a class.
+     */
+    @Test
+    public void testCharacterClassBeyondAscii() {
+        testObject.addWord("caf\u00e9");
+        testObject.addWord("cafe");
+
+        assertEquals(
+            ImmutableSet.of("caf\u00e9"),
+            testObject.getMatchingWords("caf[\u00e0-\u00ff]")
+        );
+        assertEquals(
+            ImmutableSet.of("cafe"),
+            testObject.getMatchingWords("caf[^\u00e9]")
+        );
+    }
+
+    /**
+     * Test that an unterminated character class throws a
+     * RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testUnterminatedCharacterClass() {
+        testObject.getMatchingWords("f[aeiou");
+    }
+
+    /**
+     * Test that a range which runs backwards throws a RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testBackwardsCharacterClassRange() {
+        testObject.getMatchingWords("f[z-a]n");
+    }
+
+    /**
+     * Test that adding a word with a bracket in it throws a
+     * RuntimeException when the trie takes character classes.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testAddWordCharacterClass() {
+        testObject.addWord("a[b]");
+    }
+
+    /**
+     * Test that a trie without character classes takes brackets as
+     * literals, so that words with them in can be added and found.
+     */
+    @Test
+    public void testNoCharacterClasses() {
+        final WildcardTrie trie = new WildcardTrie();
+        trie.addWord("a[b]");
+        trie.addWord("ab");
+
+        assertTrue(trie.isValidWord("a[b]"));
+        assertTrue(trie.isWord("a[b]"));
+        assertFalse(trie.isWord("ab]"));
+        assertFalse(trie.isWord("a["));
+        assertTrue(trie.isPrefix("a["));
+        assertEquals(ImmutableSet.of("a[b]"), trie.getMatchingWords("a[*]"));
+        assertFalse(new WildcardTrie('*', '%').isWord("f[aeiou"));
+        assertFalse(testObject.isValidWord("a[b]"));
+    }
+
+    /**
+     * Test that regular expression searches agree with
+     * java.util.regex over the same words.
+     */
+    @Test
+    public void testGetWordsMatchingRegex() {
+        for (final String regex : ImmutableSet.of(
+                "fun", "fun.*", ".*ing", "f(u|a)(n|r)(d|m)", "(fun|farm)s?",
+                "[a-f].*", "[^f].*", "fun( farm|d(s|ing))", "f.*d.*",
+                ".*", "", "z.*", "(cr|f|t)un.*")) {
+
+            final Set<String> expected = EXPECTED_TEST_WORDS.stream()
+                .filter(word -> word.matches(regex))
+                .collect(Collectors.toSet());
+
+            assertEquals(
+                regex,
+                expected,
+                testObject.getWordsMatchingRegex(regex)
+            );
+        }
+
+        assertTrue(testObject.getWordsMatchingRegex(null).isEmpty());
+    }
+
+    /**
+     * Test that a malformed regular expression throws a
+     * RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testGetWordsMatchingRegexInvalid() {
+        testObject.getWordsMatchingRegex("fun(d");
+    }
+
+    /**
+     * Test that fuzzy searches agree with the edit distance worked out
+     * word by word.
+     */
+    @Test
+    public void testGetWordsWithinDistance() {
+        for (final String term : ImmutableSet.of(
+                "fun", "fum", "fnu", "fundz", "frm", "fanding", "tunfish",
+                "crowdfunding", "x", "fu*d", "**", "fun farms")) {
+
+            for (int maxEdits = 0; maxEdits <= 3; maxEdits++) {
+                final int bound = maxEdits;
+                final Set<String> expected = EXPECTED_TEST_WORDS.stream()
+                    .filter(word -> editDistance(term, word) <= bound)
+                    .collect(Collectors.toSet());
+
+                assertEquals(
+                    term + " within " + maxEdits,
+                    expected,
+                    testObject.getWordsWithinDistance(term, maxEdits)
+                );
+            }
+        }
+    }
+
+    /**
+     * Test that null and empty terms are within range of no words.
+     */
+    @Test
+    public void testGetWordsWithinDistanceNullAndEmpty() {
+        assertTrue(testObject.getWordsWithinDistance(null, 2).isEmpty());
+        assertTrue(testObject.getWordsWithinDistance("", 2).isEmpty());
+    }
+
+    /**
+     * Test that a negative number of edits throws a RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testGetWordsWithinNegativeDistance() {
+        testObject.getWordsWithinDistance("fun", -1);
+    }
+
+    /**
+     * Test that tile queries agree with counting the letters of each
+     * word.
+     */
+    @Test
+    public void testGetWordsFromTiles() {
+        for (final String tiles : ImmutableSet.of(
+                "nuf", "dnufs", "fun", "mraf", "*un", "f**", "***",
+                "gindnfu", "funding*", "uf", "*", "zzz", "f*n fa*m",
+                "nfudgnixxx")) {
+
+            final Set<String> fromTiles = EXPECTED_TEST_WORDS.stream()
+                .filter(word -> canSpell(tiles, word))
+                .collect(Collectors.toSet());
+            final Set<String> anagrams = fromTiles.stream()
+                .filter(word -> word.length() == tiles.length())
+                .collect(Collectors.toSet());
+
+            assertEquals(tiles, fromTiles, testObject.getWordsFromTiles(tiles));
+            assertEquals(tiles, anagrams, testObject.getAnagrams(tiles));
+        }
+
+        assertTrue(testObject.getWordsFromTiles(null).isEmpty());
+        assertTrue(testObject.getAnagrams("").isEmpty());
+    }
+
+    /**
+     * Test that the top matching words agree with sorting every match
+     * by weight.
+     */
+    @Test
+    public void testGetTopMatchingWords() {
+        final Map<String, Long> weights = new HashMap<>();
+        long weight = 7;
+
+        for (final String word : EXPECTED_TEST_WORDS) {
+            weight = weight * 31 % 11;
+            weights.put(word, weight);
+            testObject.addWord(word, weight);
+        }
+
+        for (final String searchTerm : ImmutableSet.of(
+                "%", "fun%", "f%", "*un*", "f***", "%ing", "[cf]%",
+                "fun", "zzz%")) {
+
+            for (int k = 0; k <= EXPECTED_TEST_WORDS.size() + 1; k++) {
+                final List<String> expected = testObject
+                    .getMatchingWords(searchTerm)
+                    .stream()
+                    .sorted((a, b) -> weights.get(a).equals(weights.get(b))
+                        ? a.compareTo(b)
+                        : Long.compare(weights.get(b), weights.get(a)))
+                    .limit(k)
+                    .collect(Collectors.toList());
+
+                assertEquals(
+                    searchTerm + " top " + k,
+                    expected,
+                    testObject.getTopMatchingWords(searchTerm, k)
+                );
+            }
+        }
+    }
+
+    /**
+     * Test that lowering a word's weight lowers its rank, and that
+     * adding it again without a weight keeps its weight.
+     */
+    @Test
+    public void testReweightWord() {
+        testObject.addWord("funding", 100);
+        testObject.addWord("fund", 50);
+
+        assertEquals(
+            ImmutableList.of("funding", "fund"),
+            testObject.getTopMatchingWords("fun%", 2)
+        );
+
+        testObject.addWord("funding", 10);
+        testObject.addWord("funding");
+
+        assertEquals(
+            ImmutableList.of("fund", "funding"),
+            testObject.getTopMatchingWords("fun%", 2)
+        );
+    }
+
+    /**
+     * Test that words without weights tie, and come out in ascending
+     * order.
+     */
+    @Test
+    public void testGetTopMatchingWordsUnweighted() {
+        assertEquals(
+            ImmutableList.of("fun", "fun farm", "fund"),
+            testObject.getTopMatchingWords("fun%", 3)
+        );
+        assertTrue(testObject.getTopMatchingWords(null, 3).isEmpty());
+    }
+
+    /**
+     * Test that a negative weight throws a RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testAddWordNegativeWeight() {
+        testObject.addWord("fun", -1);
+    }
+
+    /**
+     * Test that asking for a negative number of words throws a
+     * RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testGetTopMatchingWordsNegative() {
+        testObject.getTopMatchingWords("fun%", -1);
+    }
+
+    /**
+     * Test that a parallel search finds the same words as a sequential
+     * one, for search terms which fan out over subtrees both larger and
+     * smaller than those which tasks stop splitting.
+     */
+    @Test
+    public void testGetMatchingWordsParallel() {
+        final String alphabet = "abcde";
+        final WildcardTrie trie = new WildcardTrie();
+
+        for (int number = 0; number < 5 * 5 * 5 * 5 * 5 * 5; number++) {
+            final StringBuilder word = new StringBuilder();
+
+            for (int rest = number; rest > 0 || 0 == word.length();
+                    rest /= 5) {
+                word.append(alphabet.charAt(rest % 5));
+            }
+
+            if (0 != number % 3) {
+                trie.addWord(word.toString());
+            }
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            for (final String searchTerm : ImmutableList.of("*", "**a**",
+                    "a****", "****e", "*****", "ab*", "abcd*", "[a-c]*[^b]*",
+                    "a%e", "zz*", "")) {
+                assertEquals(
+                    searchTerm,
+                    trie.getMatchingWords(searchTerm),
+                    trie.getMatchingWords(searchTerm, pool)
+                );
+            }
+
+            assertEquals(
+                EXPECTED_TEST_WORDS,
+                testObject.getMatchingWords("%", pool)
+            );
+            assertTrue(testObject.getMatchingWords(null, pool).isEmpty());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test that loading words in parallel builds the same trie as
+     * adding them one by one, including into a trie which already
+     * holds words.
+     */
+    @Test
+    public void testAddWordsParallel() {
+        final List<String> words = new ArrayList<>();
+
+        for (int number = 0; number < 2000; number++) {
+            words.add(Integer.toString(number * 7919, 36));
+        }
+
+        words.addAll(ImmutableList.of("f", "fun", "fundraiser", "z"));
+
+        final WildcardTrie sequential = new WildcardTrie('*', '%');
+        sequential.addWords(EXPECTED_TEST_WORDS);
+        words.forEach(sequential::addWord);
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            testObject.addWords(words, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(sequential.getNodeCount(), testObject.getNodeCount());
+        assertEquals(
+            sequential.getMatchingWords("%"),
+            testObject.getMatchingWords("%")
+        );
+        assertEquals(
+            testObject.getMatchingWords("%").size(),
+            checkWordCounts(testObject.getRoot())
+        );
+
+        for (final String searchTerm : ImmutableList.of("*", "**", "***",
+                "f*********", "*****", "1%", "fund%")) {
+            assertEquals(
+                searchTerm,
+                sequential.countMatchingWords(searchTerm),
+                testObject.countMatchingWords(searchTerm)
+            );
+        }
+    }
+
+    /**
+     * Test that a parallel load with an invalid word in it throws a
+     * RuntimeException, and adds none of the words.
+     */
+    @Test
+    public void testAddWordsParallelInvalid() {
+        try {
+            testObject.addWords(
+                ImmutableList.of("fan", "f*n"),
+                ForkJoinPool.commonPool()
+            );
+            fail("Expected a RuntimeException.");
+        } catch (final RuntimeException expected) {
+            assertFalse(testObject.isWord("fan"));
+            assertEquals(
+                EXPECTED_TEST_WORDS,
+                testObject.getMatchingWords("%")
+            );
+        }
+    }
+
+    /**
+     * Test that a trie built from sorted words is the same as one built
+     * a word at a time.
+     */
+    @Test
+    public void testFromSorted() {
+        final List<String> words = new ArrayList<>(EXPECTED_TEST_WORDS);
+        words.addAll(ImmutableList.of("f", "fun", "fundraiser", "z"));
+        Collections.sort(words);
+
+        final WildcardTrie sorted =
+            WildcardTrie.fromSorted(words.iterator(), '*', '%');
+
+        testObject.addWords(ImmutableSet.of("f", "fundraiser", "z"));
+
+        assertEquals(testObject.getNodeCount(), sorted.getNodeCount());
+        assertEquals(
+            testObject.getMatchingWords("%"),
+            sorted.getMatchingWords("%")
+        );
+        assertEquals(words.size() - 1, checkWordCounts(sorted.getRoot()));
+
+        for (final String searchTerm : ImmutableList.of("*", "***", "f*",
+                "f*********", "fun*", "*un", "fund%")) {
+            assertEquals(
+                searchTerm,
+                testObject.countMatchingWords(searchTerm),
+                sorted.countMatchingWords(searchTerm)
+            );
+        }
+    }
+
+    /**
+     * Test that words out of order are still added, and that a trie
+     * built from them is the same as one built a word at a time.
+     */
+    @Test
+    public void testFromSortedOutOfOrder() {
+        final List<String> words = ImmutableList.of(
+            "fund", "funding", "fun", "tunafish", "farm", "funds",
+            "crowdfunding", "fun farm", "funding", "fund"
+        );
+
+        final WildcardTrie trie =
+            WildcardTrie.fromSorted(words.iterator(), '*', '%');
+
+        assertEquals(testObject.getNodeCount(), trie.getNodeCount());
+        assertEquals(EXPECTED_TEST_WORDS, trie.getMatchingWords("%"));
+        assertEquals(
+            EXPECTED_TEST_WORDS.size(),
+            checkWordCounts(trie.getRoot())
+        );
+        assertEquals(
+            testObject.countMatchingWords("*******"),
+            trie.countMatchingWords("*******")
+        );
+        assertEquals(
+            ImmutableList.of("fun", "fun farm", "fund", "funding", "funds"),
+            trie.getMatchingWords("fun%", 10)
+        );
+    }
+
+    /**
+     * Test that building from no words gives an empty trie.
+     */
+    @Test
+    public void testFromSortedEmpty() {
+        final WildcardTrie trie = WildcardTrie.fromSorted(
+            Collections.<String>emptyList().iterator()
+        );
+
+        assertEquals(1, trie.getNodeCount());
+        assertFalse(trie.isPrefix("*"));
+    }
+
+    /**
+     * Test that building from a word with a wildcard in it throws a
+     * RuntimeException.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testFromSortedWildcard() {
+        WildcardTrie.fromSorted(ImmutableList.of("fan", "f*n").iterator());
+    }
+
+    /**
+     * Test that a removed word is gone, and the words sharing its path
+     * are not.
+     */
+    @Test
+    public void testRemoveWord() {
+        assertTrue(testObject.removeWord("fund"));
+        assertFalse(testObject.removeWord("fund"));
+        assertFalse(testObject.removeWord("fu"));
+        assertFalse(testObject.removeWord("zzz"));
+        assertFalse(testObject.removeWord("f*n"));
+        assertFalse(testObject.removeWord(null));
+        assertFalse(testObject.removeWord(""));
+
+        assertFalse(testObject.isWord("fund"));
+        assertTrue(testObject.isPrefix("fund"));
+        assertTrue(testObject.isWord("funds"));
+        assertTrue(testObject.isWord("funding"));
+        assertEquals(
+            ImmutableSet.of("fun", "funds", "funding", "fun farm"),
+            testObject.getMatchingWords("fun%")
+        );
+    }
+
+    /**
+     * Test that removing words prunes the nodes that led only to them,
+     * leaving as many nodes as if they had never been added.
+     */
+    @Test
+    public void testRemoveWordPrunes() {
+        final WildcardTrie reference = new WildcardTrie();
+        reference.addWords(ImmutableSet.of("fun", "fund", "farm"));
+
+        testObject.removeWords(
+            ImmutableSet.of("funds", "funding", "tunafish", "crowdfunding",
+                "fun farm", "not a word")
+        );
+
+        assertEquals(reference.getNodeCount(), testObject.getNodeCount());
+        assertFalse(testObject.isPrefix("t"));
+        assertFalse(testObject.isPrefix("fund*"));
+
+        testObject.removeWords(ImmutableSet.of("fun", "fund", "farm"));
+
+        assertEquals(1, testObject.getNodeCount());
+        assertTrue(testObject.getMatchingWords("%").isEmpty());
+    }
+
+    /**
+     * Test that the number of words below each node is kept up to date
+     * as words are added, added again and removed.
+     */
+    @Test
+    public void testWordCounts() {
+        assertEquals(
+            EXPECTED_TEST_WORDS.size(),
+            checkWordCounts(testObject.getRoot())
+        );
+
+        testObject.addWord("fund");
+        testObject.addWord("fund", 5L);
+        testObject.addWord("fun fair");
+
+        assertEquals(9, checkWordCounts(testObject.getRoot()));
+        assertEquals(6, testObject.findNode("fun").getWordCount());
+
+        testObject.removeWords(ImmutableSet.of("fund", "tunafish", "zzz"));
+
+        assertEquals(7, checkWordCounts(testObject.getRoot()));
+        assertEquals(6, testObject.findNode("f").getWordCount());
+    }
+
+    /**
+     * Test that the lengths of the words below each node, and their
+     * greatest weights, are brought up to date by a removal.
+     */
+    @Test
+    public void testRemoveWordUpdatesPruning() {
+        final WildcardTrie trie = new WildcardTrie('*', '%');
+        trie.addWord("fun", 1);
+        trie.addWord("fund", 2);
+        trie.addWord("fundraiser", 9);
+
+        assertTrue(trie.removeWord("fundraiser"));
+        assertTrue(trie.isWord("fund"));
+        assertFalse(trie.isPrefix("fund"));
+        assertEquals(0, trie.countMatchingWords("f*********"));
+        assertEquals(
+            ImmutableList.of("fund"),
+            trie.getTopMatchingWords("f%", 1)
+        );
+
+        final Node root = trie.findNode("f");
+        assertEquals(2, root.getMaxWeight());
+        assertFalse(root.hasSuffixLongerThan(3));
+
+        trie.addWord("fundraiser");
+
+        assertEquals(0, trie.findNode("fundraiser").getWeight());
+    }
+
+    /**
+     * Checks that every node at or below a given one counts the words
+     * at or below it.
+     *
+     * @param node the node to check
+     *
+     * @return the number of words at or below {@code node}
+     */
+    private static int checkWordCounts(final Node node) {
+        int count = node.isCompleteWord() ? 1 : 0;
+
+        for (int index = 0; index < node.getChildCount(); index++) {
+            count += checkWordCounts(node.getChildAt(index));
+        }
+
+        assertEquals(node.toString(), count, node.getWordCount());
+
+        return count;
+    }
+
+    /**
+     * Checks whether a word can be spelt with a set of tiles, where the
+     * wildcard is a blank.
+     *
+     * @param tiles the tiles
+     * @param word the word
+     *
+     * @return true if {@code word} can be spelt from {@code tiles}
+     */
+    private static boolean canSpell(final String tiles, final String word) {
+        final List<Character> left = new ArrayList<>();
+
+        for (final char tile : tiles.toCharArray()) {
+            left.add(tile);
+        }
+
+        for (final char character : word.toCharArray()) {
+            if (!left.remove(Character.valueOf(character))
+                    && !left.remove(EXPECTED_WILDCARD_CHAR)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes the Levenshtein distance between a term and a word, the
+     * textbook way. The wildcard in the term matches any character.
+     *
+     * @param term the term, which may contain wildcards
+     * @param word the word
+     *
+     * @return the number of edits to turn {@code word} into {@code term}
+     */
+    private static int editDistance(final String term, final String word) {
+        final int[][] table = new int[term.length() + 1][word.length() + 1];
+
+        for (int i = 0; i <= term.length(); i++) {
+            for (int j = 0; j <= word.length(); j++) {
+                if (0 == i || 0 == j) {
+                    table[i][j] = i + j;
+                    continue;
+                }
+
+                final char termChar = term.charAt(i - 1);
+                final int cost = EXPECTED_WILDCARD_CHAR == termChar
+                    || termChar == word.charAt(j - 1) ? 0 : 1;
+
+                table[i][j] = Math.min(
+                    table[i - 1][j - 1] + cost,
+                    Math.min(table[i - 1][j], table[i][j - 1]) + 1
+                );
+            }
+        }
+
+        return table[term.length()][word.length()];
+    }
+}